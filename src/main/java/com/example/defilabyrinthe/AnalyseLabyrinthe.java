@@ -0,0 +1,311 @@
+package com.example.defilabyrinthe;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Statistiques d'un labyrinthe, calculées en un parcours des murs suivi de deux parcours en
+ * largeur.
+ */
+public class AnalyseLabyrinthe {
+
+  /**
+   * Nombre de cellules du labyrinthe.
+   */
+  private final int taille;
+
+  /**
+   * Nombre de cellules pour chaque nombre de passages ouverts (de 0 à 4).
+   */
+  private final long[] repartitionDegres;
+
+  /**
+   * Nombre de boucles, c'est-à-dire de murs enlevés en plus de ceux d'un labyrinthe parfait.
+   */
+  private final long boucles;
+
+  /**
+   * Plus grande distance trouvée entre deux cellules.
+   */
+  private final int diametre;
+
+  /**
+   * Longueur du plus court chemin entre l'entrée et la sortie, -1 si la sortie est inaccessible.
+   */
+  private final int longueurSolution;
+
+  /**
+   * Constructeur.
+   *
+   * @param taille Nombre de cellules
+   * @param repartitionDegres Nombre de cellules pour chaque nombre de passages ouverts
+   * @param boucles Nombre de boucles
+   * @param diametre Plus grande distance trouvée entre deux cellules
+   * @param longueurSolution Longueur du plus court chemin entre l'entrée et la sortie
+   */
+  private AnalyseLabyrinthe(int taille, long[] repartitionDegres, long boucles, int diametre,
+                            int longueurSolution) {
+    this.taille = taille;
+    this.repartitionDegres = repartitionDegres;
+    this.boucles = boucles;
+    this.diametre = diametre;
+    this.longueurSolution = longueurSolution;
+  }
+
+  /**
+   * Analyse un labyrinthe entre son entrée et sa sortie.
+   *
+   * @param generator Générateur du labyrinthe
+   * @return Statistiques du labyrinthe
+   */
+  public static AnalyseLabyrinthe analyser(MazeGenerator generator) {
+    LabyrintheCompact labyrinthe = generator.compacter();
+    Cell entree = generator.getEntrance();
+    Cell sortie = generator.getExit();
+    return analyser(labyrinthe, labyrinthe.indice(entree.getX(), entree.getY()),
+        labyrinthe.indice(sortie.getX(), sortie.getY()));
+  }
+
+  /**
+   * Analyse une suite de labyrinthes. Le flux peut être parallèle : chaque labyrinthe est analysé
+   * indépendamment des autres.
+   *
+   * @param generators Générateurs des labyrinthes
+   * @return Statistiques des labyrinthes, dans le même ordre
+   */
+  public static Stream<AnalyseLabyrinthe> analyser(Stream<MazeGenerator> generators) {
+    return generators.map(AnalyseLabyrinthe::analyser);
+  }
+
+  /**
+   * Génère et analyse une suite de labyrinthes compacts, un par graine, entre les mêmes entrée et
+   * sortie que {@link MazeGenerator}. Contrairement à {@link #analyser(Stream)}, aucune cellule ni
+   * aucun graphe n'est construit, ce qui convient aux grands lots. Le flux peut être parallèle.
+   *
+   * @param largeur Largeur des labyrinthes
+   * @param hauteur Hauteur des labyrinthes
+   * @param graines Graines des générateurs aléatoires, une par labyrinthe
+   * @return Statistiques des labyrinthes, dans l'ordre des graines
+   */
+  public static Stream<AnalyseLabyrinthe> analyser(int largeur, int hauteur,
+                                                   LongStream graines) {
+    return graines.mapToObj(graine -> {
+      LabyrintheCompact labyrinthe = MazeGenerator.generateCompact(largeur, hauteur,
+          Disposition.LIGNES, new Random(graine));
+      return analyser(labyrinthe, labyrinthe.indice(0, 0),
+          labyrinthe.indice(largeur - 1, hauteur - 1));
+    });
+  }
+
+  /**
+   * Analyse un labyrinthe compact.
+   *
+   * @param labyrinthe Labyrinthe à analyser
+   * @param entree Indice de la cellule d'entrée
+   * @param sortie Indice de la cellule de sortie
+   * @return Statistiques du labyrinthe
+   */
+  public static AnalyseLabyrinthe analyser(LabyrintheCompact labyrinthe, int entree, int sortie) {
+    int taille = labyrinthe.getTaille();
+    long[] repartition = new long[5];
+    int[] parents = new int[taille];
+    long aretes = 0;
+    long composantes = taille;
+    for (int i = 0; i < taille; i++) {
+      parents[i] = i;
+    }
+    for (int i = 0; i < taille; i++) {
+      int ouverts = labyrinthe.passages(i);
+      repartition[Integer.bitCount(ouverts)]++;
+      // Chaque arête n'est comptée qu'une fois, depuis la cellule au nord ou à l'ouest.
+      for (int bit = LabyrintheCompact.EST; bit <= LabyrintheCompact.SUD; bit <<= 1) {
+        if ((ouverts & bit) != 0) {
+          aretes++;
+          if (unir(parents, i, labyrinthe.voisin(i, bit))) {
+            composantes--;
+          }
+        }
+      }
+    }
+
+    int[] distances = new int[taille];
+    int[] file = new int[taille];
+    int extremite = parcourir(labyrinthe, entree, distances, file);
+    int longueurSolution = distances[sortie];
+    int autreExtremite = parcourir(labyrinthe, extremite, distances, file);
+    int diametre = distances[autreExtremite];
+    // Les cases ajoutées par la disposition sont des cellules isolées : elles ne comptent ni dans
+    // la répartition, ni dans les boucles, où elles ajoutent autant de composantes que de cellules.
+    repartition[0] -= taille - labyrinthe.getNombreCellules();
+    return new AnalyseLabyrinthe(labyrinthe.getNombreCellules(), repartition,
+        aretes - taille + composantes, diametre, longueurSolution);
+  }
+
+  /**
+   * Réunit les composantes de deux cellules.
+   *
+   * @param parents Parent de chaque cellule dans sa composante
+   * @param a Première cellule
+   * @param b Seconde cellule
+   * @return true si les deux cellules étaient dans des composantes différentes
+   */
+  private static boolean unir(int[] parents, int a, int b) {
+    int racineA = racine(parents, a);
+    int racineB = racine(parents, b);
+    if (racineA == racineB) {
+      return false;
+    }
+    parents[racineA] = racineB;
+    return true;
+  }
+
+  /**
+   * Retourne la racine de la composante d'une cellule en raccourcissant le chemin parcouru.
+   *
+   * @param parents Parent de chaque cellule dans sa composante
+   * @param noeud Cellule
+   * @return Racine de la composante
+   */
+  private static int racine(int[] parents, int noeud) {
+    while (parents[noeud] != noeud) {
+      parents[noeud] = parents[parents[noeud]];
+      noeud = parents[noeud];
+    }
+    return noeud;
+  }
+
+  /**
+   * Parcours en largeur séquentiel depuis une cellule.
+   *
+   * @param labyrinthe Labyrinthe à parcourir
+   * @param depart Indice de la cellule de départ
+   * @param distances Distances au départ, remplies par le parcours (-1 si inaccessible)
+   * @param file File de cellules, au moins aussi grande que le labyrinthe
+   * @return Indice de la dernière cellule atteinte, donc l'une des plus éloignées du départ
+   */
+  private static int parcourir(LabyrintheCompact labyrinthe, int depart, int[] distances,
+                               int[] file) {
+    Arrays.fill(distances, -1);
+    distances[depart] = 0;
+    file[0] = depart;
+    int debut = 0;
+    int fin = 1;
+    while (debut < fin) {
+      int noeud = file[debut++];
+      int ouverts = labyrinthe.passages(noeud);
+      for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        if ((ouverts & bit) != 0) {
+          int voisin = labyrinthe.voisin(noeud, bit);
+          if (distances[voisin] < 0) {
+            distances[voisin] = distances[noeud] + 1;
+            file[fin++] = voisin;
+          }
+        }
+      }
+    }
+    return file[fin - 1];
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de cellules.
+   *
+   * @return Nombre de cellules du labyrinthe
+   */
+  public int getTaille() {
+    return taille;
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de culs-de-sac.
+   *
+   * @return Nombre de cellules n'ayant qu'un seul passage ouvert
+   */
+  public long getCulsDeSac() {
+    return repartitionDegres[1];
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de carrefours.
+   *
+   * @return Nombre de cellules ayant au moins trois passages ouverts
+   */
+  public long getCarrefours() {
+    return repartitionDegres[3] + repartitionDegres[4];
+  }
+
+  /**
+   * Getter permettant de récupérer la répartition des cellules selon leurs passages.
+   *
+   * @return Nombre de cellules pour chaque nombre de passages ouverts (de 0 à 4)
+   */
+  public long[] getRepartitionDegres() {
+    return repartitionDegres.clone();
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de boucles, laissées par
+   * {@code MazeGenerator#removeRandomWalls()}.
+   *
+   * @return Nombre de boucles, 0 pour un labyrinthe parfait
+   */
+  public long getBoucles() {
+    return boucles;
+  }
+
+  /**
+   * Getter permettant de récupérer le diamètre du labyrinthe. Il est obtenu par un double
+   * parcours en largeur : exact pour un labyrinthe parfait, c'est un minorant sinon.
+   *
+   * @return Plus grande distance trouvée entre deux cellules
+   */
+  public int getDiametre() {
+    return diametre;
+  }
+
+  /**
+   * Getter permettant de récupérer la longueur de la solution.
+   *
+   * @return Distance entre l'entrée et la sortie, -1 si la sortie est inaccessible
+   */
+  public int getLongueurSolution() {
+    return longueurSolution;
+  }
+
+  /**
+   * Retourne la part des cellules se trouvant sur la solution.
+   *
+   * @return Part des cellules de la solution, entre 0 et 1
+   */
+  public double getPartSolution() {
+    return longueurSolution < 0 ? 0 : (longueurSolution + 1) / (double) taille;
+  }
+
+  /**
+   * Calcule un score de difficulté : une solution longue par rapport au diamètre et de
+   * nombreux points de décision (carrefours et culs-de-sac) rendent le labyrinthe plus difficile.
+   *
+   * @return Score de difficulté, 0 si la sortie est inaccessible
+   */
+  public double getDifficulte() {
+    if (longueurSolution <= 0) {
+      return 0;
+    }
+    double decisions = (getCarrefours() + getCulsDeSac()) / (double) taille;
+    return longueurSolution / (double) diametre * decisions;
+  }
+
+  /**
+   * Retourne les statistiques du labyrinthe.
+   *
+   * @return Statistiques sous forme de texte
+   */
+  @Override
+  public String toString() {
+    return "Culs-de-sac : " + getCulsDeSac() + ", carrefours : " + getCarrefours()
+        + ", boucles : " + boucles + ", diamètre : " + diametre + ", solution : "
+        + longueurSolution + ", difficulté : " + getDifficulte();
+  }
+
+}
@@ -0,0 +1,453 @@
+package com.example.defilabyrinthe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parcours en largeur parallèle du labyrinthe. Toutes les arêtes ayant un poids de 1, le parcours
+ * niveau par niveau donne les mêmes distances que {@link Graphe#aaEtoile(Cell, Cell)}.
+ *
+ * <p>Le travail de chaque niveau est découpé en tâches sur un {@link ForkJoinPool}. À chaque
+ * niveau, le parcours choisit entre l'exploration descendante, depuis une liste de cellules de la
+ * frontière, et l'exploration ascendante, où chaque cellule non visitée cherche un voisin dans le
+ * bitmap de la frontière. Les cellules visitées sont marquées dans un bitmap atomique.
+ *
+ * <p>Dans un grand labyrinthe en grille, la frontière reste de l'ordre du côté de la grille, bien
+ * en dessous de {@code taille / BETA} : le changement de direction ne se déclenche pratiquement
+ * jamais et seule l'exploration descendante s'exécute. L'exploration ascendante ne sert que sur
+ * de petites grilles ou des graphes très ouverts.
+ */
+public class BfsParallele {
+
+  /**
+   * Seuil de passage à l'exploration ascendante : arêtes non explorées / arêtes de la frontière.
+   */
+  private static final int ALPHA = 14;
+
+  /**
+   * Seuil de retour à l'exploration descendante : cellules / cellules de la frontière.
+   */
+  private static final int BETA = 24;
+
+  /**
+   * Nombre de mots de 64 bits traités par une tâche sans découpage.
+   */
+  private static final int MOTS_PAR_TACHE = 256;
+
+  /**
+   * Nombre minimal de cellules de la frontière traitées par une tâche de l'exploration
+   * descendante : en dessous, le coût d'une tâche dépasse celui du travail.
+   */
+  private static final int CELLULES_PAR_TACHE_MIN = 64;
+
+  /**
+   * Nombre de tâches par thread du pool dans l'exploration descendante, pour équilibrer la charge.
+   */
+  private static final int TACHES_PAR_THREAD = 4;
+
+  /**
+   * Labyrinthe parcouru.
+   */
+  private final LabyrintheCompact labyrinthe;
+
+  /**
+   * Pool de threads utilisé pour le parcours.
+   */
+  private final ForkJoinPool pool;
+
+  /**
+   * Distance de chaque cellule au départ, -1 si elle n'est pas accessible.
+   */
+  private int[] distances;
+
+  /**
+   * Prédécesseur de chaque cellule sur un plus court chemin, -1 pour le départ.
+   */
+  private int[] predecessors;
+
+  /**
+   * Cellule de départ du dernier parcours.
+   */
+  private int depart = -1;
+
+  /**
+   * Constructeur utilisant le pool commun.
+   *
+   * @param labyrinthe Labyrinthe à parcourir
+   */
+  public BfsParallele(LabyrintheCompact labyrinthe) {
+    this(labyrinthe, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructeur.
+   *
+   * @param labyrinthe Labyrinthe à parcourir
+   * @param pool Pool de threads utilisé pour le parcours
+   */
+  public BfsParallele(LabyrintheCompact labyrinthe, ForkJoinPool pool) {
+    this.labyrinthe = labyrinthe;
+    this.pool = pool;
+  }
+
+  /**
+   * Calcule les distances et les prédécesseurs de toutes les cellules depuis un départ.
+   *
+   * @param depart Indice de la cellule de départ
+   * @return Distances de chaque cellule au départ, -1 pour les cellules inaccessibles
+   */
+  public int[] parcourir(int depart) {
+    int taille = labyrinthe.getTaille();
+    int mots = (taille + 63) >>> 6;
+    this.depart = depart;
+    distances = new int[taille];
+    predecessors = new int[taille];
+    Arrays.fill(distances, -1);
+    Arrays.fill(predecessors, -1);
+
+    AtomicLongArray visites = new AtomicLongArray(mots);
+    long[] frontiere = null;
+    long[] suivante = null;
+    int[] file = {depart};
+    int tailleFile = 1;
+
+    distances[depart] = 0;
+    visites.set(depart >>> 6, 1L << depart);
+    long cellulesFrontiere = 1;
+    long aretesFrontiere = labyrinthe.degre(depart);
+    long aretesNonExplorees = sommeDegres() - aretesFrontiere;
+    boolean ascendant = false;
+    int niveau = 0;
+
+    while (cellulesFrontiere > 0) {
+      boolean grandeFrontiere = cellulesFrontiere >= taille / BETA;
+      if (!ascendant && grandeFrontiere && aretesFrontiere > aretesNonExplorees / ALPHA) {
+        ascendant = true;
+        frontiere = versBitmap(file, tailleFile, mots);
+        suivante = new long[mots];
+      } else if (ascendant && !grandeFrontiere) {
+        ascendant = false;
+        file = versFile(frontiere, (int) cellulesFrontiere);
+        tailleFile = file.length;
+      }
+      int niveauSuivant = niveau + 1;
+      LongAdder cellules = new LongAdder();
+      LongAdder aretes = new LongAdder();
+      if (ascendant) {
+        long[] courante = frontiere;
+        long[] prochaine = suivante;
+        pool.invoke(new Blocs(0, mots, MOTS_PAR_TACHE, mot -> explorerAscendant(mot,
+            niveauSuivant, courante, prochaine, visites, cellules, aretes)));
+        frontiere = prochaine;
+        suivante = courante;
+      } else {
+        file = explorerDescendant(file, tailleFile, niveauSuivant, visites, aretes);
+        tailleFile = file.length;
+        cellules.add(tailleFile);
+      }
+      cellulesFrontiere = cellules.sum();
+      aretesFrontiere = aretes.sum();
+      aretesNonExplorees -= aretesFrontiere;
+      niveau = niveauSuivant;
+    }
+    return distances;
+  }
+
+  /**
+   * Explore les voisins des cellules de la frontière. La frontière est découpée selon le nombre de
+   * threads du pool ; les petites frontières, fréquentes dans un labyrinthe aux couloirs étroits,
+   * sont traitées sans passer par le pool.
+   *
+   * @param file Cellules de la frontière
+   * @param tailleFile Nombre de cellules de la frontière
+   * @param niveau Distance des cellules découvertes
+   * @param visites Cellules déjà visitées
+   * @param aretes Compteur des arêtes des cellules découvertes
+   * @return Cellules de la frontière suivante
+   */
+  private int[] explorerDescendant(int[] file, int tailleFile, int niveau,
+                                   AtomicLongArray visites, LongAdder aretes) {
+    int grain = Math.max(CELLULES_PAR_TACHE_MIN,
+        -Math.floorDiv(-tailleFile, pool.getParallelism() * TACHES_PAR_THREAD));
+    int blocs = (tailleFile + grain - 1) / grain;
+    int[][] decouvertes = new int[blocs][];
+    int[] nombres = new int[blocs];
+    Traitement traitement = bloc -> {
+      int debut = bloc * grain;
+      int fin = Math.min(tailleFile, debut + grain);
+      int[] locales = new int[4 * (fin - debut)];
+      int nombre = 0;
+      long degres = 0;
+      for (int i = debut; i < fin; i++) {
+        int noeud = file[i];
+        int ouverts = labyrinthe.passages(noeud);
+        for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+          if ((ouverts & bit) == 0) {
+            continue;
+          }
+          int voisin = labyrinthe.voisin(noeud, bit);
+          if (marquer(visites, voisin)) {
+            distances[voisin] = niveau;
+            predecessors[voisin] = noeud;
+            locales[nombre++] = voisin;
+            degres += labyrinthe.degre(voisin);
+          }
+        }
+      }
+      decouvertes[bloc] = locales;
+      nombres[bloc] = nombre;
+      aretes.add(degres);
+    };
+    if (blocs == 1) {
+      traitement.traiter(0);
+    } else {
+      pool.invoke(new Blocs(0, blocs, 1, traitement));
+    }
+    int total = 0;
+    for (int nombre : nombres) {
+      total += nombre;
+    }
+    int[] suivante = new int[total];
+    int position = 0;
+    for (int bloc = 0; bloc < blocs; bloc++) {
+      System.arraycopy(decouvertes[bloc], 0, suivante, position, nombres[bloc]);
+      position += nombres[bloc];
+    }
+    return suivante;
+  }
+
+  /**
+   * Cherche, pour chaque cellule non visitée d'un mot, un voisin appartenant à la frontière.
+   *
+   * @param mot Indice du mot des cellules visitées
+   * @param niveau Distance des cellules découvertes
+   * @param frontiere Frontière courante
+   * @param suivante Frontière suivante
+   * @param visites Cellules déjà visitées
+   * @param cellules Compteur des cellules découvertes
+   * @param aretes Compteur des arêtes des cellules découvertes
+   */
+  private void explorerAscendant(int mot, int niveau, long[] frontiere, long[] suivante,
+                                 AtomicLongArray visites, LongAdder cellules,
+                                 LongAdder aretes) {
+    int taille = labyrinthe.getTaille();
+    long nonVisites = ~visites.get(mot);
+    if ((mot << 6) + 64 > taille) {
+      nonVisites &= (1L << (taille - (mot << 6))) - 1;
+    }
+    long trouvees = 0;
+    long degres = 0;
+    while (nonVisites != 0) {
+      int decalage = Long.numberOfTrailingZeros(nonVisites);
+      nonVisites &= nonVisites - 1;
+      int noeud = (mot << 6) + decalage;
+      int ouverts = labyrinthe.passages(noeud);
+      for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        if ((ouverts & bit) == 0) {
+          continue;
+        }
+        int voisin = labyrinthe.voisin(noeud, bit);
+        if ((frontiere[voisin >>> 6] & (1L << voisin)) != 0) {
+          distances[noeud] = niveau;
+          predecessors[noeud] = voisin;
+          trouvees |= 1L << decalage;
+          degres += Integer.bitCount(ouverts);
+          break;
+        }
+      }
+    }
+    // Le mot appartient à cette seule tâche : les écritures n'entrent pas en concurrence.
+    if (trouvees != 0) {
+      visites.set(mot, visites.get(mot) | trouvees);
+    }
+    suivante[mot] = trouvees;
+    cellules.add(Long.bitCount(trouvees));
+    aretes.add(degres);
+  }
+
+  /**
+   * Convertit une frontière sous forme de liste en bitmap.
+   *
+   * @param file Cellules de la frontière
+   * @param tailleFile Nombre de cellules de la frontière
+   * @param mots Nombre de mots du bitmap
+   * @return Bitmap de la frontière
+   */
+  private static long[] versBitmap(int[] file, int tailleFile, int mots) {
+    long[] bitmap = new long[mots];
+    for (int i = 0; i < tailleFile; i++) {
+      bitmap[file[i] >>> 6] |= 1L << file[i];
+    }
+    return bitmap;
+  }
+
+  /**
+   * Convertit une frontière sous forme de bitmap en liste.
+   *
+   * @param bitmap Bitmap de la frontière
+   * @param nombre Nombre de cellules de la frontière
+   * @return Cellules de la frontière
+   */
+  private static int[] versFile(long[] bitmap, int nombre) {
+    int[] file = new int[nombre];
+    int position = 0;
+    for (int mot = 0; mot < bitmap.length; mot++) {
+      long bits = bitmap[mot];
+      while (bits != 0) {
+        file[position++] = (mot << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Marque une cellule dans un bitmap partagé.
+   *
+   * @param bitmap Bitmap à modifier
+   * @param noeud Indice de la cellule
+   * @return true si la cellule n'était pas encore marquée
+   */
+  private static boolean marquer(AtomicLongArray bitmap, int noeud) {
+    int mot = noeud >>> 6;
+    long masque = 1L << noeud;
+    long ancien = bitmap.get(mot);
+    while ((ancien & masque) == 0) {
+      if (bitmap.compareAndSet(mot, ancien, ancien | masque)) {
+        return true;
+      }
+      ancien = bitmap.get(mot);
+    }
+    return false;
+  }
+
+  /**
+   * Calcule la somme des degrés de toutes les cellules.
+   *
+   * @return Nombre d'arêtes orientées du labyrinthe
+   */
+  private long sommeDegres() {
+    long somme = 0;
+    for (int i = 0; i < labyrinthe.getTaille(); i++) {
+      somme += labyrinthe.degre(i);
+    }
+    return somme;
+  }
+
+  /**
+   * Retourne la distance entre le départ du dernier parcours et une cellule.
+   *
+   * @param arrivee Indice de la cellule d'arrivée
+   * @return Distance, ou l'infini si la cellule n'est pas accessible, comme
+   *     {@link Graphe#aaEtoile(Cell, Cell)}
+   */
+  public double distance(int arrivee) {
+    return distances[arrivee] < 0 ? Double.POSITIVE_INFINITY : distances[arrivee];
+  }
+
+  /**
+   * Reconstruit le plus court chemin entre le départ du dernier parcours et une cellule.
+   * Comme {@link Graphe#getChemin(Cell, Cell)}, le chemin commence par l'arrivée.
+   *
+   * @param arrivee Indice de la cellule d'arrivée
+   * @return Indices des cellules du chemin, vide si l'arrivée n'est pas accessible
+   */
+  public ArrayList<Integer> getChemin(int arrivee) {
+    ArrayList<Integer> chemin = new ArrayList<>();
+    if (distances[arrivee] < 0) {
+      return chemin;
+    }
+    for (int noeud = arrivee; noeud != -1; noeud = predecessors[noeud]) {
+      chemin.add(noeud);
+    }
+    return chemin;
+  }
+
+  /**
+   * Getter permettant de récupérer les distances du dernier parcours.
+   *
+   * @return Distances de chaque cellule au départ, -1 pour les cellules inaccessibles
+   */
+  public int[] getDistances() {
+    return distances;
+  }
+
+  /**
+   * Getter permettant de récupérer les prédécesseurs du dernier parcours.
+   *
+   * @return Prédécesseur de chaque cellule, -1 pour le départ et les cellules inaccessibles
+   */
+  public int[] getPredecessors() {
+    return predecessors;
+  }
+
+  /**
+   * Getter permettant de récupérer la cellule de départ du dernier parcours.
+   *
+   * @return Indice de la cellule de départ, -1 si aucun parcours n'a été fait
+   */
+  public int getDepart() {
+    return depart;
+  }
+
+  /**
+   * Traitement appliqué à un élément d'une plage découpée en tâches.
+   */
+  @FunctionalInterface
+  private interface Traitement {
+    void traiter(int element);
+  }
+
+  /**
+   * Tâche découpant récursivement une plage d'éléments.
+   */
+  private static final class Blocs extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Premier élément de la plage.
+     */
+    private final int debut;
+
+    /**
+     * Élément suivant le dernier élément de la plage.
+     */
+    private final int fin;
+
+    /**
+     * Nombre d'éléments en dessous duquel la plage n'est plus découpée.
+     */
+    private final int grain;
+
+    /**
+     * Traitement appliqué à chaque élément.
+     */
+    private final Traitement traitement;
+
+    Blocs(int debut, int fin, int grain, Traitement traitement) {
+      this.debut = debut;
+      this.fin = fin;
+      this.grain = grain;
+      this.traitement = traitement;
+    }
+
+    @Override
+    protected void compute() {
+      if (fin - debut <= grain) {
+        for (int element = debut; element < fin; element++) {
+          traitement.traiter(element);
+        }
+        return;
+      }
+      int milieu = (debut + fin) >>> 1;
+      invokeAll(new Blocs(debut, milieu, grain, traitement),
+          new Blocs(milieu, fin, grain, traitement));
+    }
+  }
+
+}
@@ -0,0 +1,1118 @@
+package com.example.defilabyrinthe;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Recherche hiérarchique de plus courts chemins (HPA*) sur deux niveaux. Le labyrinthe est découpé
+ * en clusters carrés, eux-mêmes regroupés en blocs carrés de clusters. Les entrées d'un cluster
+ * sont ses cellules ayant un passage vers un autre cluster ; les portes d'un bloc sont celles de
+ * ses entrées ayant un passage vers un autre bloc. Les distances entre les entrées d'un même
+ * cluster sont précalculées, puis, sur ce graphe des entrées, celles entre les portes d'un même
+ * bloc.
+ *
+ * <p>Une requête relie le départ et l'arrivée aux entrées de leur cluster, puis cherche un chemin
+ * avec l'algorithme A* : dans les blocs du départ et de l'arrivée, sur le graphe des entrées ;
+ * ailleurs, sur le graphe des portes, bien plus petit. Le chemin est ensuite raffiné bloc par bloc
+ * puis cluster par cluster. Toutes les cellules traversant une frontière étant des entrées ou des
+ * portes, la distance obtenue est exacte.
+ *
+ * <p>Une arête interne entre deux entrées (ou deux portes) n'est gardée que si aucun plus court
+ * chemin entre elles ne passe par une troisième entrée (ou porte) : ce chemin est déjà représenté
+ * par d'autres arêtes, ce qui allège les graphes.
+ */
+public class CheminHierarchique {
+
+  /**
+   * Nombre de clusters par côté d'un bloc utilisé par défaut.
+   */
+  private static final int CLUSTERS_PAR_BLOC = 4;
+
+  /**
+   * Labyrinthe parcouru.
+   */
+  private final LabyrintheCompact labyrinthe;
+
+  /**
+   * Côté d'un cluster, en cellules.
+   */
+  private final int tailleCluster;
+
+  /**
+   * Nombre de clusters par côté d'un bloc.
+   */
+  private final int clustersParBloc;
+
+  /**
+   * Nombre de clusters selon l'abscisse.
+   */
+  private final int clustersAbscisse;
+
+  /**
+   * Nombre de clusters selon l'ordonnée.
+   */
+  private final int clustersOrdonnee;
+
+  /**
+   * Nombre de blocs selon l'ordonnée.
+   */
+  private final int blocsOrdonnee;
+
+  /**
+   * Entrées de chaque cluster, triées par indice de cellule.
+   */
+  private final int[][] entrees;
+
+  /**
+   * Pour chaque cluster, position de la première arête interne de chaque entrée ; la dernière
+   * case est le nombre d'arêtes.
+   */
+  private final int[][] debutsAretes;
+
+  /**
+   * Pour chaque cluster, entrée d'arrivée de chaque arête interne (position dans les entrées).
+   */
+  private final int[][] ciblesAretes;
+
+  /**
+   * Pour chaque cluster, longueur de chaque arête interne.
+   */
+  private final int[][] longueursAretes;
+
+  /**
+   * Portes de chaque bloc, triées par indice de cellule.
+   */
+  private final int[][] portes;
+
+  /**
+   * Pour chaque bloc, position du premier lien de chaque porte ; la dernière case est le nombre
+   * de liens.
+   */
+  private final int[][] debutsLiens;
+
+  /**
+   * Pour chaque bloc, porte d'arrivée de chaque lien (position dans les portes).
+   */
+  private final int[][] ciblesLiens;
+
+  /**
+   * Pour chaque bloc, longueur de chaque lien.
+   */
+  private final int[][] longueursLiens;
+
+  /**
+   * Clusters dont les murs ont changé depuis leur dernier calcul.
+   */
+  private final boolean[] invalides;
+
+  /**
+   * Blocs dont un cluster a changé depuis leur dernier calcul.
+   */
+  private final boolean[] blocsInvalides;
+
+  /**
+   * Indique si au moins un cluster est invalide.
+   */
+  private boolean aActualiser;
+
+  /**
+   * Numéro du premier noeud abstrait de chaque cluster ; la dernière case est le nombre de
+   * noeuds.
+   */
+  private int[] premiersNoeuds;
+
+  /**
+   * Génération de la recherche en cours, pour ne pas réinitialiser les tableaux de recherche.
+   */
+  private int generation;
+
+  /**
+   * Génération à laquelle chaque noeud abstrait a été atteint.
+   */
+  private int[] marques = new int[0];
+
+  /**
+   * Meilleure distance connue au départ de chaque noeud abstrait.
+   */
+  private int[] distances = new int[0];
+
+  /**
+   * Noeud précédent de chaque noeud abstrait sur le meilleur chemin connu.
+   */
+  private int[] predecessors = new int[0];
+
+  /**
+   * Noeuds abstraits à explorer.
+   */
+  private final Tas tas = new Tas();
+
+  /**
+   * Bloc du départ de la dernière recherche.
+   */
+  private int blocDepart;
+
+  /**
+   * Bloc de l'arrivée de la dernière recherche.
+   */
+  private int blocArrivee;
+
+  /**
+   * Constructeur regroupant les clusters par blocs de {@value #CLUSTERS_PAR_BLOC} x
+   * {@value #CLUSTERS_PAR_BLOC}.
+   *
+   * @param labyrinthe Labyrinthe à parcourir
+   * @param tailleCluster Côté d'un cluster, en cellules
+   */
+  public CheminHierarchique(LabyrintheCompact labyrinthe, int tailleCluster) {
+    this(labyrinthe, tailleCluster, CLUSTERS_PAR_BLOC);
+  }
+
+  /**
+   * Constructeur. Calcule les entrées et les arêtes internes de tous les clusters, puis les
+   * portes et les liens de tous les blocs.
+   *
+   * @param labyrinthe Labyrinthe à parcourir
+   * @param tailleCluster Côté d'un cluster, en cellules
+   * @param clustersParBloc Nombre de clusters par côté d'un bloc
+   */
+  public CheminHierarchique(LabyrintheCompact labyrinthe, int tailleCluster,
+                            int clustersParBloc) {
+    this.labyrinthe = labyrinthe;
+    this.tailleCluster = tailleCluster;
+    this.clustersParBloc = clustersParBloc;
+    clustersAbscisse = (labyrinthe.getLargeur() + tailleCluster - 1) / tailleCluster;
+    clustersOrdonnee = (labyrinthe.getHauteur() + tailleCluster - 1) / tailleCluster;
+    int nombre = clustersAbscisse * clustersOrdonnee;
+    entrees = new int[nombre][];
+    debutsAretes = new int[nombre][];
+    ciblesAretes = new int[nombre][];
+    longueursAretes = new int[nombre][];
+    invalides = new boolean[nombre];
+    IntStream.range(0, nombre).parallel().forEach(this::construireCluster);
+    numeroterNoeuds();
+
+    blocsOrdonnee = (clustersOrdonnee + clustersParBloc - 1) / clustersParBloc;
+    int blocs = (clustersAbscisse + clustersParBloc - 1) / clustersParBloc * blocsOrdonnee;
+    portes = new int[blocs][];
+    debutsLiens = new int[blocs][];
+    ciblesLiens = new int[blocs][];
+    longueursLiens = new int[blocs][];
+    blocsInvalides = new boolean[blocs];
+    IntStream.range(0, blocs).parallel().forEach(this::construireBloc);
+  }
+
+  /**
+   * Ouvre ou ferme un passage et invalide les clusters des deux cellules concernées.
+   *
+   * @param x Abscisse de la cellule
+   * @param y Ordonnée de la cellule
+   * @param direction Direction du passage (N, E, S, W)
+   * @param ouvert true pour ouvrir le passage, false pour ajouter le mur
+   */
+  public synchronized void modifierMur(int x, int y, char direction, boolean ouvert) {
+    int indice = labyrinthe.indice(x, y);
+    int bit = LabyrintheCompact.bit(direction);
+    int voisin = ouvert ? labyrinthe.ouvrir(indice, bit) : labyrinthe.ajouterMur(indice, bit);
+    invalider(indice);
+    if (voisin >= 0) {
+      invalider(voisin);
+    }
+  }
+
+  /**
+   * Marque le cluster d'une cellule comme à recalculer, par exemple après une modification
+   * directe des murs du labyrinthe.
+   *
+   * @param indice Indice de la cellule
+   */
+  public synchronized void invalider(int indice) {
+    int k = cluster(indice);
+    invalides[k] = true;
+    blocsInvalides[bloc(k)] = true;
+    aActualiser = true;
+  }
+
+  /**
+   * Recalcule les clusters invalides, puis les blocs qui les contiennent.
+   */
+  private void actualiser() {
+    if (!aActualiser) {
+      return;
+    }
+    IntStream.range(0, invalides.length).parallel().filter(k -> invalides[k])
+        .forEach(this::construireCluster);
+    Arrays.fill(invalides, false);
+    numeroterNoeuds();
+    IntStream.range(0, blocsInvalides.length).parallel().filter(b -> blocsInvalides[b])
+        .forEach(this::construireBloc);
+    Arrays.fill(blocsInvalides, false);
+    aActualiser = false;
+  }
+
+  /**
+   * Attribue un numéro à chaque entrée : les entrées d'un cluster ont des numéros consécutifs.
+   */
+  private void numeroterNoeuds() {
+    premiersNoeuds = new int[entrees.length + 1];
+    for (int k = 0; k < entrees.length; k++) {
+      premiersNoeuds[k + 1] = premiersNoeuds[k] + entrees[k].length;
+    }
+  }
+
+  /**
+   * Calcule la longueur du plus court chemin entre deux cellules.
+   *
+   * @param depart Indice de la cellule de départ
+   * @param arrivee Indice de la cellule d'arrivée
+   * @return Distance entre les deux cellules, -1 si l'arrivée est inaccessible
+   */
+  public synchronized int distance(int depart, int arrivee) {
+    if (!rechercher(depart, arrivee)) {
+      return -1;
+    }
+    return distances[premiersNoeuds[entrees.length] + 1];
+  }
+
+  /**
+   * Calcule le plus court chemin entre deux cellules. Comme {@link Graphe#getChemin(Cell, Cell)},
+   * le chemin commence par l'arrivée.
+   *
+   * @param depart Indice de la cellule de départ
+   * @param arrivee Indice de la cellule d'arrivée
+   * @return Indices des cellules du chemin, null si l'arrivée est inaccessible
+   */
+  public synchronized int[] chemin(int depart, int arrivee) {
+    if (!rechercher(depart, arrivee)) {
+      return null;
+    }
+    int noeudDepart = premiersNoeuds[entrees.length];
+    int noeud = noeudDepart + 1;
+    int[] chemin = new int[distances[noeud] + 1];
+    int position = 0;
+    chemin[position++] = arrivee;
+    int de = arrivee;
+    while (noeud != noeudDepart) {
+      noeud = predecessors[noeud];
+      int vers = noeud == noeudDepart ? depart : cellule(noeud);
+      int b = bloc(cluster(vers));
+      if (noeud == noeudDepart || b == blocDepart || b == blocArrivee
+          || b != bloc(cluster(de))) {
+        position = raffiner(de, vers, chemin, position);
+      } else {
+        position = raffinerLien(b, de, vers, chemin, position);
+      }
+      de = vers;
+    }
+    return chemin;
+  }
+
+  /**
+   * Ajoute au chemin les cellules d'un plus court chemin entre deux cellules d'un même cluster,
+   * ou entre deux cellules voisines.
+   *
+   * @param de Cellule déjà dans le chemin
+   * @param vers Cellule à atteindre
+   * @param chemin Chemin en construction
+   * @param position Nombre de cellules déjà dans le chemin
+   * @return Nombre de cellules dans le chemin, vers comprise
+   */
+  private int raffiner(int de, int vers, int[] chemin, int position) {
+    if (de == vers) {
+      // Arête de longueur nulle entre le départ ou l'arrivée et l'entrée de même cellule.
+      return position;
+    } else if (cluster(de) != cluster(vers)) {
+      chemin[position++] = vers;
+      return position;
+    }
+    Zone zone = new Zone(cluster(de));
+    int[] precedents = new int[zone.passages.length];
+    zone.parcourir(zone.local(vers), new int[zone.passages.length], precedents, null, null);
+    for (int local = precedents[zone.local(de)]; position < chemin.length;
+         local = precedents[local]) {
+      chemin[position++] = zone.cellule(local);
+      if (local == zone.local(vers)) {
+        break;
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Ajoute au chemin les cellules d'un lien entre deux portes d'un bloc : le lien est d'abord
+   * retrouvé dans le graphe des entrées du bloc, puis chacune de ses arêtes est raffinée.
+   *
+   * @param b Numéro du bloc
+   * @param de Porte déjà dans le chemin
+   * @param vers Porte à atteindre
+   * @param chemin Chemin en construction
+   * @param position Nombre de cellules déjà dans le chemin
+   * @return Nombre de cellules dans le chemin, vers comprise
+   */
+  private int raffinerLien(int b, int de, int vers, int[] chemin, int position) {
+    Bloc bloc = new Bloc(b);
+    int taille = bloc.cellules.length;
+    int[] precedents = new int[taille];
+    bloc.adjacences.parcourir(bloc.local(vers), new int[taille], precedents, null, null,
+        new Tas());
+    int cellule = de;
+    for (int local = precedents[bloc.local(de)]; ; local = precedents[local]) {
+      int suivante = bloc.cellules[local];
+      position = raffiner(cellule, suivante, chemin, position);
+      cellule = suivante;
+      if (local == bloc.local(vers)) {
+        return position;
+      }
+    }
+  }
+
+  /**
+   * Cherche un plus court chemin dans le graphe abstrait, complété par deux noeuds : le départ,
+   * numéroté juste après les entrées, puis l'arrivée. Les entrées des blocs du départ et de
+   * l'arrivée suivent les arêtes internes de leur cluster ; celles des autres blocs, qui sont des
+   * portes, suivent les liens de leur bloc.
+   *
+   * @param depart Indice de la cellule de départ
+   * @param arrivee Indice de la cellule d'arrivée
+   * @return true si l'arrivée est accessible
+   */
+  private boolean rechercher(int depart, int arrivee) {
+    actualiser();
+    int noeudDepart = premiersNoeuds[entrees.length];
+    int noeudArrivee = noeudDepart + 1;
+    if (marques.length < noeudArrivee + 1) {
+      marques = new int[noeudArrivee + 1];
+      distances = new int[noeudArrivee + 1];
+      predecessors = new int[noeudArrivee + 1];
+      generation = 0;
+    }
+    if (++generation == Integer.MAX_VALUE) {
+      Arrays.fill(marques, 0);
+      generation = 1;
+    }
+    tas.vider();
+
+    // Liens entre le départ et les entrées de son cluster, puis entre l'arrivée et celles du sien.
+    int clusterDepart = cluster(depart);
+    int clusterArrivee = cluster(arrivee);
+    blocDepart = bloc(clusterDepart);
+    blocArrivee = bloc(clusterArrivee);
+    Zone zoneDepart = new Zone(clusterDepart);
+    Zone zoneArrivee = clusterArrivee == clusterDepart ? zoneDepart : new Zone(clusterArrivee);
+    int[] distancesDepart = new int[zoneDepart.passages.length];
+    boolean[] viaDepart = new boolean[zoneDepart.passages.length];
+    zoneDepart.parcourir(zoneDepart.local(depart), distancesDepart, null, viaDepart,
+        zoneDepart.entrees());
+    int[] distancesArrivee = new int[zoneArrivee.passages.length];
+    boolean[] viaArrivee = new boolean[zoneArrivee.passages.length];
+    zoneArrivee.parcourir(zoneArrivee.local(arrivee), distancesArrivee, null, viaArrivee,
+        zoneArrivee.entrees());
+
+    ameliorer(noeudDepart, 0, -1, heuristique(depart, arrivee));
+    while (!tas.estVide()) {
+      long candidat = tas.extraire();
+      int noeud = (int) candidat;
+      int distance = distances[noeud];
+      int cellule = noeud == noeudDepart ? depart : noeud == noeudArrivee ? arrivee
+          : cellule(noeud);
+      if ((int) (candidat >>> 32) != distance + heuristique(cellule, arrivee)) {
+        continue;
+      }
+      if (noeud == noeudArrivee) {
+        return true;
+      }
+      if (noeud == noeudDepart) {
+        int[] liste = entrees[clusterDepart];
+        for (int j = 0; j < liste.length; j++) {
+          int local = zoneDepart.local(liste[j]);
+          if (distancesDepart[local] >= 0 && !viaDepart[local]) {
+            ameliorer(premiersNoeuds[clusterDepart] + j, distancesDepart[local], noeud,
+                heuristique(liste[j], arrivee));
+          }
+        }
+        int local = zoneDepart.local(arrivee);
+        if (clusterDepart == clusterArrivee && distancesDepart[local] >= 0
+            && !viaDepart[local]) {
+          ameliorer(noeudArrivee, distancesDepart[local], noeud, 0);
+        }
+        continue;
+      }
+
+      int k = cluster(cellule);
+      int b = bloc(k);
+      boolean detaille = b == blocDepart || b == blocArrivee;
+      if (detaille) {
+        int position = noeud - premiersNoeuds[k];
+        for (int a = debutsAretes[k][position]; a < debutsAretes[k][position + 1]; a++) {
+          int cible = ciblesAretes[k][a];
+          ameliorer(premiersNoeuds[k] + cible, distance + longueursAretes[k][a], noeud,
+              heuristique(entrees[k][cible], arrivee));
+        }
+      } else {
+        int position = Arrays.binarySearch(portes[b], cellule);
+        for (int a = debutsLiens[b][position]; a < debutsLiens[b][position + 1]; a++) {
+          int cible = portes[b][ciblesLiens[b][a]];
+          ameliorer(noeud(cible), distance + longueursLiens[b][a], noeud,
+              heuristique(cible, arrivee));
+        }
+      }
+      int ouverts = labyrinthe.passages(cellule);
+      for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        if ((ouverts & bit) == 0) {
+          continue;
+        }
+        int voisin = labyrinthe.voisin(cellule, bit);
+        int autre = cluster(voisin);
+        if (autre != k && (detaille || bloc(autre) != b)) {
+          ameliorer(noeud(voisin), distance + 1, noeud, heuristique(voisin, arrivee));
+        }
+      }
+      if (k == clusterArrivee) {
+        int local = zoneArrivee.local(cellule);
+        if (distancesArrivee[local] >= 0 && !viaArrivee[local]) {
+          ameliorer(noeudArrivee, distance + distancesArrivee[local], noeud, 0);
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Enregistre un chemin vers un noeud s'il est plus court que le meilleur connu.
+   *
+   * @param noeud Noeud atteint
+   * @param distance Distance du départ au noeud par ce chemin
+   * @param precedent Noeud précédent, -1 pour le départ
+   * @param heuristique Minorant de la distance du noeud à l'arrivée
+   */
+  private void ameliorer(int noeud, int distance, int precedent, int heuristique) {
+    if (marques[noeud] == generation && distances[noeud] <= distance) {
+      return;
+    }
+    marques[noeud] = generation;
+    distances[noeud] = distance;
+    predecessors[noeud] = precedent;
+    tas.ajouter((long) (distance + heuristique) << 32 | noeud);
+  }
+
+  /**
+   * Calcule les entrées d'un cluster et ses arêtes internes.
+   *
+   * @param k Numéro du cluster
+   */
+  private void construireCluster(int k) {
+    Zone zone = new Zone(k);
+    boolean[] estEntree = zone.entrees();
+    int nombre = 0;
+    for (boolean entree : estEntree) {
+      if (entree) {
+        nombre++;
+      }
+    }
+    int[] liste = new int[nombre];
+    nombre = 0;
+    for (int local = 0; local < estEntree.length; local++) {
+      if (estEntree[local]) {
+        liste[nombre++] = zone.cellule(local);
+      }
+    }
+    Arrays.sort(liste);
+
+    int[] positions = new int[liste.length];
+    for (int i = 0; i < liste.length; i++) {
+      positions[i] = zone.local(liste[i]);
+    }
+    int[] debuts = new int[liste.length + 1];
+    int[] cibles = new int[4 * liste.length];
+    int[] longueurs = new int[4 * liste.length];
+    int[] locales = new int[zone.passages.length];
+    boolean[] via = new boolean[zone.passages.length];
+    for (int i = 0; i < liste.length; i++) {
+      zone.parcourir(positions[i], locales, null, via, estEntree);
+      debuts[i + 1] = debuts[i];
+      for (int j = 0; j < liste.length; j++) {
+        int local = positions[j];
+        if (j == i || locales[local] < 0 || via[local]) {
+          continue;
+        }
+        if (debuts[i + 1] == cibles.length) {
+          cibles = Arrays.copyOf(cibles, cibles.length * 2);
+          longueurs = Arrays.copyOf(longueurs, longueurs.length * 2);
+        }
+        cibles[debuts[i + 1]] = j;
+        longueurs[debuts[i + 1]++] = locales[local];
+      }
+    }
+    entrees[k] = liste;
+    debutsAretes[k] = debuts;
+    ciblesAretes[k] = Arrays.copyOf(cibles, debuts[liste.length]);
+    longueursAretes[k] = Arrays.copyOf(longueurs, debuts[liste.length]);
+  }
+
+  /**
+   * Calcule les portes d'un bloc et ses liens, par des recherches sur le graphe des entrées du
+   * bloc.
+   *
+   * @param b Numéro du bloc
+   */
+  private void construireBloc(int b) {
+    Bloc bloc = new Bloc(b);
+    int taille = bloc.cellules.length;
+    boolean[] estPorte = new boolean[taille];
+    long[] cles = new long[taille];
+    int nombre = 0;
+    for (int local = 0; local < taille; local++) {
+      int cellule = bloc.cellules[local];
+      int ouverts = labyrinthe.passages(cellule);
+      for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        if ((ouverts & bit) != 0 && bloc(cluster(labyrinthe.voisin(cellule, bit))) != b) {
+          estPorte[local] = true;
+          cles[nombre++] = (long) cellule << 32 | local;
+          break;
+        }
+      }
+    }
+
+    // Portes triées par cellule, avec leur numéro local.
+    Arrays.sort(cles, 0, nombre);
+    int[] liste = new int[nombre];
+    int[] positions = new int[nombre];
+    for (int i = 0; i < nombre; i++) {
+      liste[i] = (int) (cles[i] >>> 32);
+      positions[i] = (int) cles[i];
+    }
+
+    int[] debuts = new int[nombre + 1];
+    int[] cibles = new int[4 * nombre];
+    int[] longueurs = new int[4 * nombre];
+    int[] distancesPortes = new int[taille];
+    boolean[] via = new boolean[taille];
+    Tas file = new Tas();
+    for (int i = 0; i < nombre; i++) {
+      bloc.adjacences.parcourir(positions[i], distancesPortes, null, via, estPorte, file);
+      debuts[i + 1] = debuts[i];
+      for (int j = 0; j < nombre; j++) {
+        int noeud = positions[j];
+        if (j == i || distancesPortes[noeud] < 0 || via[noeud]) {
+          continue;
+        }
+        if (debuts[i + 1] == cibles.length) {
+          cibles = Arrays.copyOf(cibles, cibles.length * 2);
+          longueurs = Arrays.copyOf(longueurs, longueurs.length * 2);
+        }
+        cibles[debuts[i + 1]] = j;
+        longueurs[debuts[i + 1]++] = distancesPortes[noeud];
+      }
+    }
+    portes[b] = liste;
+    debutsLiens[b] = debuts;
+    ciblesLiens[b] = Arrays.copyOf(cibles, debuts[nombre]);
+    longueursLiens[b] = Arrays.copyOf(longueurs, debuts[nombre]);
+  }
+
+  /**
+   * Retourne la cellule d'un noeud abstrait.
+   *
+   * @param noeud Numéro du noeud, qui doit être une entrée
+   * @return Indice de la cellule
+   */
+  private int cellule(int noeud) {
+    int k = Arrays.binarySearch(premiersNoeuds, noeud);
+    if (k < 0) {
+      k = -k - 2;
+    } else {
+      // Plusieurs clusters sans entrée peuvent commencer au même numéro : on prend le dernier.
+      while (premiersNoeuds[k + 1] == noeud) {
+        k++;
+      }
+    }
+    return entrees[k][noeud - premiersNoeuds[k]];
+  }
+
+  /**
+   * Retourne le noeud abstrait d'une entrée.
+   *
+   * @param cellule Indice de la cellule, qui doit être une entrée
+   * @return Numéro du noeud
+   */
+  private int noeud(int cellule) {
+    int k = cluster(cellule);
+    return premiersNoeuds[k] + Arrays.binarySearch(entrees[k], cellule);
+  }
+
+  /**
+   * Retourne le cluster d'une cellule.
+   *
+   * @param indice Indice de la cellule
+   * @return Numéro du cluster
+   */
+  private int cluster(int indice) {
+    return labyrinthe.abscisse(indice) / tailleCluster * clustersOrdonnee
+        + labyrinthe.ordonnee(indice) / tailleCluster;
+  }
+
+  /**
+   * Retourne le bloc d'un cluster.
+   *
+   * @param k Numéro du cluster
+   * @return Numéro du bloc
+   */
+  private int bloc(int k) {
+    return k / clustersOrdonnee / clustersParBloc * blocsOrdonnee
+        + k % clustersOrdonnee / clustersParBloc;
+  }
+
+  /**
+   * Minorant de la distance entre deux cellules : la distance de Manhattan.
+   *
+   * @param de Indice de la première cellule
+   * @param vers Indice de la seconde cellule
+   * @return Distance de Manhattan entre les deux cellules
+   */
+  private int heuristique(int de, int vers) {
+    return Math.abs(labyrinthe.abscisse(de) - labyrinthe.abscisse(vers))
+        + Math.abs(labyrinthe.ordonnee(de) - labyrinthe.ordonnee(vers));
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de clusters.
+   *
+   * @return Nombre de clusters
+   */
+  public int getNombreClusters() {
+    return entrees.length;
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de noeuds du graphe abstrait.
+   *
+   * @return Nombre d'entrées de tous les clusters
+   */
+  public synchronized int getNombreNoeuds() {
+    actualiser();
+    return premiersNoeuds[entrees.length];
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de portes, c'est-à-dire de noeuds du graphe abstrait
+   * parcouru hors des blocs du départ et de l'arrivée.
+   *
+   * @return Nombre de portes de tous les blocs
+   */
+  public synchronized int getNombrePortes() {
+    actualiser();
+    int nombre = 0;
+    for (int[] liste : portes) {
+      nombre += liste.length;
+    }
+    return nombre;
+  }
+
+  /**
+   * Copie locale des passages d'un cluster, rangée ligne par ligne. Les passages vers les autres
+   * clusters sont retirés, ce qui limite naturellement les parcours au cluster.
+   */
+  private final class Zone {
+
+    /**
+     * Abscisse de la première cellule du cluster.
+     */
+    private final int x0;
+
+    /**
+     * Ordonnée de la première cellule du cluster.
+     */
+    private final int y0;
+
+    /**
+     * Nombre de valeurs possibles pour l'ordonnée dans le cluster.
+     */
+    private final int hauteur;
+
+    /**
+     * Passages internes de chaque cellule du cluster.
+     */
+    private final byte[] passages;
+
+    /**
+     * Passages vers d'autres clusters de chaque cellule du cluster.
+     */
+    private final byte[] sorties;
+
+    /**
+     * Décalage de position locale vers la voisine, pour chaque direction dans l'ordre des bits.
+     */
+    private final int[] decalages;
+
+    /**
+     * File des parcours en largeur.
+     */
+    private final int[] file;
+
+    Zone(int k) {
+      x0 = (k / clustersOrdonnee) * tailleCluster;
+      y0 = (k % clustersOrdonnee) * tailleCluster;
+      int largeur = Math.min(tailleCluster, labyrinthe.getLargeur() - x0);
+      hauteur = Math.min(tailleCluster, labyrinthe.getHauteur() - y0);
+      passages = new byte[largeur * hauteur];
+      sorties = new byte[largeur * hauteur];
+      decalages = new int[] {-hauteur, 1, hauteur, -1};
+      file = new int[largeur * hauteur];
+      for (int x = 0; x < largeur; x++) {
+        for (int y = 0; y < hauteur; y++) {
+          int ouverts = labyrinthe.passages(labyrinthe.indice(x0 + x, y0 + y));
+          int externes = 0;
+          if (x == 0) {
+            externes |= LabyrintheCompact.NORD;
+          }
+          if (x == largeur - 1) {
+            externes |= LabyrintheCompact.SUD;
+          }
+          if (y == 0) {
+            externes |= LabyrintheCompact.OUEST;
+          }
+          if (y == hauteur - 1) {
+            externes |= LabyrintheCompact.EST;
+          }
+          passages[x * hauteur + y] = (byte) (ouverts & ~externes);
+          sorties[x * hauteur + y] = (byte) (ouverts & externes);
+        }
+      }
+    }
+
+    /**
+     * Retourne les cellules du cluster ayant un passage vers un autre cluster.
+     *
+     * @return true pour chaque entrée, indexé par position locale
+     */
+    boolean[] entrees() {
+      boolean[] entrees = new boolean[sorties.length];
+      for (int local = 0; local < sorties.length; local++) {
+        entrees[local] = sorties[local] != 0;
+      }
+      return entrees;
+    }
+
+    /**
+     * Retourne la position locale d'une cellule du cluster.
+     *
+     * @param indice Indice de la cellule
+     * @return Position locale
+     */
+    int local(int indice) {
+      return (labyrinthe.abscisse(indice) - x0) * hauteur + labyrinthe.ordonnee(indice) - y0;
+    }
+
+    /**
+     * Retourne l'indice d'une cellule à partir de sa position locale.
+     *
+     * @param local Position locale
+     * @return Indice de la cellule
+     */
+    int cellule(int local) {
+      return labyrinthe.indice(x0 + local / hauteur, y0 + local % hauteur);
+    }
+
+    /**
+     * Parcours en largeur limité au cluster.
+     *
+     * @param depart Position locale du départ
+     * @param distances Distance de chaque cellule au départ, -1 si elle n'est pas reliée
+     * @param predecessors Prédécesseur de chaque cellule, rempli si non null
+     * @param via Indique, pour chaque cellule, si un plus court chemin depuis le départ passe par
+     *     une autre entrée ; rempli si non null
+     * @param estEntree Entrées du cluster, nécessaire si via est non null
+     */
+    void parcourir(int depart, int[] distances, int[] predecessors, boolean[] via,
+                   boolean[] estEntree) {
+      Arrays.fill(distances, -1);
+      if (via != null) {
+        Arrays.fill(via, false);
+      }
+      distances[depart] = 0;
+      file[0] = depart;
+      int tete = 0;
+      int queue = 1;
+      while (tete < queue) {
+        int noeud = file[tete++];
+        boolean passeParEntree = via != null && noeud != depart
+            && (via[noeud] || estEntree[noeud]);
+        for (int ouverts = passages[noeud]; ouverts != 0; ouverts &= ouverts - 1) {
+          int voisin = noeud + decalages[Integer.numberOfTrailingZeros(ouverts)];
+          if (distances[voisin] < 0) {
+            distances[voisin] = distances[noeud] + 1;
+            if (predecessors != null) {
+              predecessors[voisin] = noeud;
+            }
+            if (via != null) {
+              via[voisin] = passeParEntree;
+            }
+            file[queue++] = voisin;
+          } else if (via != null && distances[voisin] == distances[noeud] + 1) {
+            via[voisin] |= passeParEntree;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Graphe des entrées d'un bloc : les entrées de ses clusters, reliées par les arêtes internes
+   * et par les passages entre clusters du bloc. Les entrées sont numérotées cluster par cluster.
+   */
+  private final class Bloc {
+
+    /**
+     * Premier cluster du bloc selon l'abscisse.
+     */
+    private final int cx0;
+
+    /**
+     * Premier cluster du bloc selon l'ordonnée.
+     */
+    private final int cy0;
+
+    /**
+     * Nombre de clusters du bloc selon l'ordonnée.
+     */
+    private final int colonnes;
+
+    /**
+     * Numéro local de la première entrée de chaque cluster, ligne par ligne ; la dernière case
+     * est le nombre d'entrées.
+     */
+    private final int[] debuts;
+
+    /**
+     * Cellule de chaque entrée.
+     */
+    private final int[] cellules;
+
+    /**
+     * Arêtes entre les entrées.
+     */
+    private final Adjacences adjacences;
+
+    Bloc(int b) {
+      cx0 = b / blocsOrdonnee * clustersParBloc;
+      cy0 = b % blocsOrdonnee * clustersParBloc;
+      int lignes = Math.min(clustersParBloc, clustersAbscisse - cx0);
+      colonnes = Math.min(clustersParBloc, clustersOrdonnee - cy0);
+      int[] clusters = new int[lignes * colonnes];
+      debuts = new int[clusters.length + 1];
+      for (int i = 0; i < clusters.length; i++) {
+        clusters[i] = (cx0 + i / colonnes) * clustersOrdonnee + cy0 + i % colonnes;
+        debuts[i + 1] = debuts[i] + entrees[clusters[i]].length;
+      }
+      int taille = debuts[clusters.length];
+      cellules = new int[taille];
+      int[] debutsVoisins = new int[taille + 1];
+      int[] passagesInternes = new int[taille];
+      for (int i = 0; i < clusters.length; i++) {
+        int k = clusters[i];
+        System.arraycopy(entrees[k], 0, cellules, debuts[i], entrees[k].length);
+        for (int position = 0; position < entrees[k].length; position++) {
+          int noeud = debuts[i] + position;
+          int cellule = entrees[k][position];
+          int ouverts = labyrinthe.passages(cellule);
+          for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+            if ((ouverts & bit) == 0) {
+              continue;
+            }
+            int autre = cluster(labyrinthe.voisin(cellule, bit));
+            if (autre != k && bloc(autre) == b) {
+              passagesInternes[noeud] |= bit;
+            }
+          }
+          debutsVoisins[noeud + 1] = debutsVoisins[noeud]
+              + debutsAretes[k][position + 1] - debutsAretes[k][position]
+              + Integer.bitCount(passagesInternes[noeud]);
+        }
+      }
+      int[] voisins = new int[debutsVoisins[taille]];
+      int[] longueurs = new int[voisins.length];
+      for (int i = 0; i < clusters.length; i++) {
+        int k = clusters[i];
+        for (int position = 0; position < entrees[k].length; position++) {
+          int noeud = debuts[i] + position;
+          int arete = debutsVoisins[noeud];
+          for (int a = debutsAretes[k][position]; a < debutsAretes[k][position + 1]; a++) {
+            voisins[arete] = debuts[i] + ciblesAretes[k][a];
+            longueurs[arete++] = longueursAretes[k][a];
+          }
+          for (int ouverts = passagesInternes[noeud]; ouverts != 0; ouverts &= ouverts - 1) {
+            int bit = Integer.lowestOneBit(ouverts);
+            voisins[arete] = local(labyrinthe.voisin(cellules[noeud], bit));
+            longueurs[arete++] = 1;
+          }
+        }
+      }
+      adjacences = new Adjacences(debutsVoisins, voisins, longueurs);
+    }
+
+    /**
+     * Retourne le numéro local d'une entrée du bloc.
+     *
+     * @param cellule Indice de la cellule
+     * @return Numéro local
+     */
+    int local(int cellule) {
+      int k = cluster(cellule);
+      int rang = (k / clustersOrdonnee - cx0) * colonnes + k % clustersOrdonnee - cy0;
+      return debuts[rang] + Arrays.binarySearch(entrees[k], cellule);
+    }
+  }
+
+  /**
+   * Graphe pondéré dont les voisins de chaque noeud sont rangés à la suite, pour que les
+   * recherches répétées depuis chaque porte d'un bloc ne parcourent que des tableaux.
+   */
+  private static final class Adjacences {
+
+    /**
+     * Position du premier voisin de chaque noeud ; la dernière case est le nombre d'arêtes.
+     */
+    private final int[] debuts;
+
+    /**
+     * Voisin de chaque arête.
+     */
+    private final int[] voisins;
+
+    /**
+     * Longueur de chaque arête.
+     */
+    private final int[] longueurs;
+
+    Adjacences(int[] debuts, int[] voisins, int[] longueurs) {
+      this.debuts = debuts;
+      this.voisins = voisins;
+      this.longueurs = longueurs;
+    }
+
+    /**
+     * Recherche de plus courts chemins (Dijkstra).
+     *
+     * @param depart Départ
+     * @param distances Distance de chaque noeud au départ, -1 s'il n'est pas relié
+     * @param predecessors Prédécesseur de chaque noeud, rempli si non null
+     * @param via Indique, pour chaque noeud, si un plus court chemin depuis le départ passe par
+     *     un autre noeud marqué ; rempli si non null
+     * @param marques Noeuds marqués, nécessaire si via est non null
+     * @param file Tas utilisé pour la recherche
+     */
+    void parcourir(int depart, int[] distances, int[] predecessors, boolean[] via,
+                   boolean[] marques, Tas file) {
+      Arrays.fill(distances, -1);
+      if (via != null) {
+        Arrays.fill(via, false);
+      }
+      distances[depart] = 0;
+      file.vider();
+      file.ajouter(depart);
+      while (!file.estVide()) {
+        long element = file.extraire();
+        int noeud = (int) element;
+        int distance = (int) (element >>> 32);
+        if (distance != distances[noeud]) {
+          continue;
+        }
+        boolean passeParMarque = via != null && noeud != depart
+            && (via[noeud] || marques[noeud]);
+        for (int a = debuts[noeud]; a < debuts[noeud + 1]; a++) {
+          int voisin = voisins[a];
+          int nouvelle = distance + longueurs[a];
+          if (distances[voisin] >= 0 && distances[voisin] < nouvelle) {
+            continue;
+          } else if (distances[voisin] == nouvelle) {
+            if (via != null) {
+              via[voisin] |= passeParMarque;
+            }
+            continue;
+          }
+          distances[voisin] = nouvelle;
+          if (predecessors != null) {
+            predecessors[voisin] = noeud;
+          }
+          if (via != null) {
+            via[voisin] = passeParMarque;
+          }
+          file.ajouter((long) nouvelle << 32 | voisin);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tas binaire d'éléments : priorité sur les 32 bits de poids fort, noeud ensuite.
+   */
+  private static final class Tas {
+
+    /**
+     * Éléments du tas.
+     */
+    private long[] elements = new long[16];
+
+    /**
+     * Nombre d'éléments du tas.
+     */
+    private int taille;
+
+    /**
+     * Vide le tas.
+     */
+    void vider() {
+      taille = 0;
+    }
+
+    /**
+     * Indique si le tas est vide.
+     *
+     * @return true si le tas ne contient aucun élément
+     */
+    boolean estVide() {
+      return taille == 0;
+    }
+
+    /**
+     * Ajoute un élément au tas.
+     *
+     * @param element Élément à ajouter
+     */
+    void ajouter(long element) {
+      if (taille == elements.length) {
+        elements = Arrays.copyOf(elements, elements.length * 2);
+      }
+      int i = taille++;
+      while (i > 0 && elements[(i - 1) >>> 1] > element) {
+        elements[i] = elements[(i - 1) >>> 1];
+        i = (i - 1) >>> 1;
+      }
+      elements[i] = element;
+    }
+
+    /**
+     * Retire l'élément de plus petite priorité du tas.
+     *
+     * @return Élément retiré
+     */
+    long extraire() {
+      long minimum = elements[0];
+      long dernier = elements[--taille];
+      int i = 0;
+      while (2 * i + 1 < taille) {
+        int enfant = 2 * i + 1;
+        if (enfant + 1 < taille && elements[enfant + 1] < elements[enfant]) {
+          enfant++;
+        }
+        if (elements[enfant] >= dernier) {
+          break;
+        }
+        elements[i] = elements[enfant];
+        i = enfant;
+      }
+      elements[i] = dernier;
+      return minimum;
+    }
+  }
+
+}
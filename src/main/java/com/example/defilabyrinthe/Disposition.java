@@ -0,0 +1,488 @@
+package com.example.defilabyrinthe;
+
+/**
+ * Ordre de rangement des cellules dans les tableaux d'un {@link LabyrintheCompact}. Les tableaux
+ * des algorithmes de recherche étant indexés de la même façon, ils suivent la même disposition.
+ *
+ * <p>Les courbes de Morton et de Hilbert rangent côte à côte des cellules voisines dans les deux
+ * directions : un déplacement au nord ou au sud ne saute plus une ligne entière de cellules. Elles
+ * parcourent des blocs carrés dont le côté est une puissance de deux ({@link #cote(int, int)}),
+ * rangés bloc par bloc comme les cellules de {@link #LIGNES}. Chaque dimension est complétée
+ * jusqu'à un multiple de ce côté, choisi pour que les cellules ajoutées, qui restent fermées, ne
+ * dépassent pas un huitième des cellules du labyrinthe.
+ */
+public enum Disposition {
+
+  /**
+   * Rangement ligne par ligne : les cellules de même abscisse sont consécutives. C'est un
+   * rangement par blocs d'une seule cellule.
+   */
+  LIGNES {
+    @Override
+    int indice(int x, int y, int hauteur, int cote) {
+      return x * hauteur + y;
+    }
+
+    @Override
+    int abscisse(int indice, int hauteur, int cote) {
+      return indice / hauteur;
+    }
+
+    @Override
+    int ordonnee(int indice, int hauteur, int cote) {
+      return indice % hauteur;
+    }
+
+    @Override
+    int indiceLocal(int x, int y, int cote) {
+      return 0;
+    }
+
+    @Override
+    int abscisseLocale(int local, int cote) {
+      return 0;
+    }
+
+    @Override
+    int ordonneeLocale(int local, int cote) {
+      return 0;
+    }
+
+    @Override
+    int voisin(int indice, int bit, int largeur, int hauteur, int cote) {
+      if (bit == LabyrintheCompact.NORD) {
+        return indice >= hauteur ? indice - hauteur : -1;
+      } else if (bit == LabyrintheCompact.SUD) {
+        return indice < (largeur - 1) * hauteur ? indice + hauteur : -1;
+      } else if (bit == LabyrintheCompact.EST) {
+        return indice % hauteur < hauteur - 1 ? indice + 1 : -1;
+      } else if (bit == LabyrintheCompact.OUEST) {
+        return indice % hauteur > 0 ? indice - 1 : -1;
+      }
+      return -1;
+    }
+
+    @Override
+    int cote(int largeur, int hauteur) {
+      return 1;
+    }
+  },
+
+  /**
+   * Courbe de Morton (ordre Z) : les bits de l'abscisse et de l'ordonnée sont entrelacés.
+   */
+  MORTON {
+    @Override
+    int indiceLocal(int x, int y, int cote) {
+      return etaler(x) << 1 | etaler(y);
+    }
+
+    @Override
+    int abscisseLocale(int local, int cote) {
+      return resserrer(local >>> 1);
+    }
+
+    @Override
+    int ordonneeLocale(int local, int cote) {
+      return resserrer(local);
+    }
+
+    /**
+     * Calcule la voisine sans désentrelacer les coordonnées : l'incrément ou le décrément se
+     * propage directement d'un bit de l'abscisse (ou de l'ordonnée) au suivant. Seul le passage
+     * d'un bloc à l'autre demande de situer le bloc.
+     */
+    @Override
+    int voisin(int indice, int bit, int largeur, int hauteur, int cote) {
+      int masque = cote * cote - 1;
+      int local = indice & masque;
+      int base = indice - local;
+      int x = local & BITS_IMPAIRS;
+      int y = local & BITS_PAIRS;
+      int ligneBlocs = blocs(hauteur, cote) * (masque + 1);
+      if (bit == LabyrintheCompact.NORD) {
+        if (x != 0) {
+          return base | ((x - 2) & BITS_IMPAIRS) | y;
+        }
+        return base >= ligneBlocs ? (base - ligneBlocs) | (masque & BITS_IMPAIRS) | y : -1;
+      } else if (bit == LabyrintheCompact.SUD) {
+        boolean derniereLigne = base >= (largeur - 1) / cote * ligneBlocs;
+        int max = derniereLigne ? (largeur - 1) & (cote - 1) : cote - 1;
+        if (x < etaler(max) << 1) {
+          return base | (((x | BITS_PAIRS) + 2) & BITS_IMPAIRS & masque) | y;
+        }
+        return derniereLigne ? -1 : (base + ligneBlocs) | y;
+      } else if (bit == LabyrintheCompact.EST) {
+        boolean derniereColonne = base % ligneBlocs == ligneBlocs - masque - 1;
+        int max = derniereColonne ? (hauteur - 1) & (cote - 1) : cote - 1;
+        if (y < etaler(max)) {
+          return base | (((y | BITS_IMPAIRS) + 1) & BITS_PAIRS & masque) | x;
+        }
+        return derniereColonne ? -1 : (base + masque + 1) | x;
+      } else if (bit == LabyrintheCompact.OUEST) {
+        if (y != 0) {
+          return base | ((y - 1) & BITS_PAIRS) | x;
+        }
+        return base % ligneBlocs != 0 ? (base - masque - 1) | (masque & BITS_PAIRS) | x : -1;
+      }
+      return -1;
+    }
+  },
+
+  /**
+   * Courbe de Hilbert : comme la courbe de Morton, mais deux indices consécutifs d'un même bloc
+   * sont toujours des cellules voisines. La courbe est parcourue par un automate à quatre états,
+   * l'orientation du quart de bloc courant. Le codage lit une transition de
+   * {@link #CODAGE_HILBERT} par niveau. Le décodage se fait sans boucle : l'état d'un niveau ne
+   * dépend que des chiffres des niveaux supérieurs, et se calcule pour tous les niveaux à la fois
+   * sur les bits de la position.
+   *
+   * <p>Les voisines restent environ deux fois plus coûteuses à calculer qu'avec {@link #MORTON},
+   * pour une localité équivalente : une tuile alignée de 4^k cases est un carré avec les deux
+   * courbes. Cette disposition n'a d'intérêt que si l'on découpe le labyrinthe en plages
+   * d'indices : avec elle, toute plage d'indices consécutifs d'un bloc est d'un seul tenant.
+   */
+  HILBERT {
+    @Override
+    int indiceLocal(int x, int y, int cote) {
+      return coder(x, y, Integer.numberOfTrailingZeros(cote) - 1, 0, 0);
+    }
+
+    @Override
+    int abscisseLocale(int local, int cote) {
+      return (int) decoder(local, cote) >>> 16;
+    }
+
+    @Override
+    int ordonneeLocale(int local, int cote) {
+      return (int) decoder(local, cote) & 0xffff;
+    }
+
+    /**
+     * Calcule la voisine en un seul décodage de la position sur la courbe. Les niveaux au-dessus
+     * du plus haut bit de coordonnée modifié gardent leurs chiffres : seuls les niveaux inférieurs
+     * sont recodés, à partir de l'état de l'automate mémorisé au décodage. Le passage d'un bloc à
+     * l'autre se fait comme pour {@link #MORTON}.
+     */
+    @Override
+    int voisin(int indice, int bit, int largeur, int hauteur, int cote) {
+      int masque = cote * cote - 1;
+      int local = indice & masque;
+      int base = indice - local;
+      long decode = decoder(local, cote);
+      int x = (int) decode >>> 16;
+      int y = (int) decode & 0xffff;
+      int etats = (int) (decode >>> 32);
+      int ligneBlocs = blocs(hauteur, cote) * (masque + 1);
+      int niveaux = Integer.numberOfTrailingZeros(cote);
+      if (bit == LabyrintheCompact.NORD) {
+        if (x != 0) {
+          return base | recoder(local, x, y, x - 1, y, etats);
+        }
+        return base >= ligneBlocs
+            ? (base - ligneBlocs) | coder(cote - 1, y, niveaux - 1, 0, 0) : -1;
+      } else if (bit == LabyrintheCompact.SUD) {
+        boolean derniereLigne = base >= (largeur - 1) / cote * ligneBlocs;
+        int max = derniereLigne ? (largeur - 1) & (cote - 1) : cote - 1;
+        if (x < max) {
+          return base | recoder(local, x, y, x + 1, y, etats);
+        }
+        return derniereLigne ? -1 : (base + ligneBlocs) | coder(0, y, niveaux - 1, 0, 0);
+      } else if (bit == LabyrintheCompact.EST) {
+        boolean derniereColonne = base % ligneBlocs == ligneBlocs - masque - 1;
+        int max = derniereColonne ? (hauteur - 1) & (cote - 1) : cote - 1;
+        if (y < max) {
+          return base | recoder(local, x, y, x, y + 1, etats);
+        }
+        return derniereColonne ? -1 : (base + masque + 1) | coder(x, 0, niveaux - 1, 0, 0);
+      } else if (bit == LabyrintheCompact.OUEST) {
+        if (y != 0) {
+          return base | recoder(local, x, y, x, y - 1, etats);
+        }
+        return base % ligneBlocs != 0
+            ? (base - masque - 1) | coder(x, cote - 1, niveaux - 1, 0, 0) : -1;
+      }
+      return -1;
+    }
+
+    /**
+     * Calcule les coordonnées d'une cellule à partir de sa position sur la courbe.
+     *
+     * @param local Position sur la courbe
+     * @param cote Côté du bloc couvert par la courbe
+     * @return État de l'automate au début de chaque niveau, sur deux bits par niveau, dans les
+     *     32 bits de poids fort ; abscisse sur les 16 bits suivants et ordonnée sur les 16 bits
+     *     de poids faible
+     */
+    private long decoder(int local, int cote) {
+      // Chiffre 0 : échange des coordonnées (état 1) ; chiffre 3 : complément et échange
+      // (état 3) ; chiffres 1 et 2 : aucun changement. Les quatre états se composent par un ou
+      // exclusif, et l'état d'un niveau est celui de tous les chiffres des niveaux supérieurs.
+      int fort = local >>> 1 & BITS_PAIRS;
+      int faible = local & BITS_PAIRS;
+      int echanges = suffixe(~(fort ^ faible) & BITS_PAIRS & (cote * cote - 1)) >>> 2;
+      int complements = suffixe(fort & faible) >>> 2;
+      // Quadrant lu dans le repère du niveau : (fort, fort ^ faible), ramené au repère du bloc.
+      int x = fort ^ (faible & echanges) ^ complements;
+      int y = fort ^ faible ^ (faible & echanges) ^ complements;
+      int etats = echanges | complements << 1;
+      return (long) etats << 32 | resserrer(x) << 16 | resserrer(y);
+    }
+
+    /**
+     * Calcule, pour chaque chiffre, le ou exclusif des bits de rang pair de ce chiffre et des
+     * chiffres supérieurs.
+     *
+     * @param bits Un bit par chiffre, sur les bits de rang pair
+     * @return Ou exclusif cumulé depuis le chiffre de poids fort
+     */
+    private int suffixe(int bits) {
+      bits ^= bits >>> 2;
+      bits ^= bits >>> 4;
+      bits ^= bits >>> 8;
+      return bits ^ bits >>> 16;
+    }
+
+    /**
+     * Calcule la position sur la courbe d'une cellule proche d'une cellule déjà décodée.
+     *
+     * @param local Position de la cellule décodée
+     * @param x Abscisse de la cellule décodée
+     * @param y Ordonnée de la cellule décodée
+     * @param nx Abscisse de la cellule cherchée, dans le même bloc
+     * @param ny Ordonnée de la cellule cherchée, dans le même bloc
+     * @param etats États de l'automate au début de chaque niveau, donnés par le décodage
+     * @return Position de la cellule cherchée
+     */
+    private int recoder(int local, int x, int y, int nx, int ny, int etats) {
+      int niveau = 31 - Integer.numberOfLeadingZeros((x ^ nx) | (y ^ ny));
+      int prefixe = local & (-1 << (2 * niveau + 2));
+      return coder(nx, ny, niveau, (etats >>> (2 * niveau)) & 3, prefixe);
+    }
+
+    /**
+     * Code sur la courbe les niveaux inférieurs des coordonnées d'une cellule.
+     *
+     * @param x Abscisse de la cellule dans le bloc
+     * @param y Ordonnée de la cellule dans le bloc
+     * @param niveau Plus haut niveau à coder, -1 pour un bloc d'une seule cellule
+     * @param etat État de l'automate au début de ce niveau
+     * @param prefixe Chiffres des niveaux supérieurs, déjà codés
+     * @return Position de la cellule sur la courbe
+     */
+    private int coder(int x, int y, int niveau, int etat, int prefixe) {
+      int local = prefixe;
+      for (; niveau >= 0; niveau--) {
+        int bits = (x >>> niveau & 1) << 1 | (y >>> niveau & 1);
+        int transition = CODAGE_HILBERT[etat << 2 | bits];
+        local |= (transition & 3) << (2 * niveau);
+        etat = transition >>> 2;
+      }
+      return local;
+    }
+  };
+
+  /**
+   * Transitions de l'automate de la courbe de Hilbert, indexées par l'état et les bits d'un niveau
+   * de l'abscisse et de l'ordonnée ({@code etat << 2 | bitX << 1 | bitY}) : chiffre du niveau
+   * sur les deux bits de poids faible, état suivant au-dessus. Les quatre états sont l'identité,
+   * l'échange des coordonnées, leur complément, et le complément suivi de l'échange.
+   */
+  private static final int[] CODAGE_HILBERT =
+      {4, 1, 15, 2, 0, 11, 5, 6, 10, 7, 9, 12, 14, 13, 3, 8};
+
+  /**
+   * Bits de rang pair, portant l'ordonnée dans la courbe de Morton.
+   */
+  private static final int BITS_PAIRS = 0x55555555;
+
+  /**
+   * Bits de rang impair, portant l'abscisse dans la courbe de Morton.
+   */
+  private static final int BITS_IMPAIRS = 0xaaaaaaaa;
+
+  /**
+   * Côté maximal d'un bloc.
+   */
+  private static final int COTE_MAX = 1024;
+
+  /**
+   * Retourne l'indice d'une cellule.
+   *
+   * @param x Abscisse de la cellule
+   * @param y Ordonnée de la cellule
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @param cote Côté des blocs
+   * @return Indice de la cellule
+   */
+  int indice(int x, int y, int hauteur, int cote) {
+    int bloc = x / cote * blocs(hauteur, cote) + y / cote;
+    return bloc * cote * cote + indiceLocal(x & (cote - 1), y & (cote - 1), cote);
+  }
+
+  /**
+   * Retourne l'abscisse de la cellule d'indice donné.
+   *
+   * @param indice Indice de la cellule
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @param cote Côté des blocs
+   * @return Abscisse de la cellule
+   */
+  int abscisse(int indice, int hauteur, int cote) {
+    int bloc = indice / (cote * cote);
+    return bloc / blocs(hauteur, cote) * cote + abscisseLocale(indice & (cote * cote - 1), cote);
+  }
+
+  /**
+   * Retourne l'ordonnée de la cellule d'indice donné.
+   *
+   * @param indice Indice de la cellule
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @param cote Côté des blocs
+   * @return Ordonnée de la cellule
+   */
+  int ordonnee(int indice, int hauteur, int cote) {
+    int bloc = indice / (cote * cote);
+    return bloc % blocs(hauteur, cote) * cote + ordonneeLocale(indice & (cote * cote - 1), cote);
+  }
+
+  /**
+   * Retourne la position d'une cellule dans son bloc.
+   *
+   * @param x Abscisse de la cellule dans le bloc
+   * @param y Ordonnée de la cellule dans le bloc
+   * @param cote Côté des blocs
+   * @return Position de la cellule dans le bloc
+   */
+  abstract int indiceLocal(int x, int y, int cote);
+
+  /**
+   * Retourne l'abscisse, dans son bloc, de la cellule de position donnée.
+   *
+   * @param local Position de la cellule dans le bloc
+   * @param cote Côté des blocs
+   * @return Abscisse de la cellule dans le bloc
+   */
+  abstract int abscisseLocale(int local, int cote);
+
+  /**
+   * Retourne l'ordonnée, dans son bloc, de la cellule de position donnée.
+   *
+   * @param local Position de la cellule dans le bloc
+   * @param cote Côté des blocs
+   * @return Ordonnée de la cellule dans le bloc
+   */
+  abstract int ordonneeLocale(int local, int cote);
+
+  /**
+   * Retourne l'indice de la cellule voisine dans une direction, sans tenir compte des murs.
+   *
+   * @param indice Indice de la cellule
+   * @param bit Direction, comme dans {@link LabyrintheCompact#voisin(int, int)}
+   * @param largeur Nombre de valeurs possibles pour l'abscisse
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @param cote Côté des blocs
+   * @return Indice de la voisine, ou -1 si elle est hors du labyrinthe
+   */
+  abstract int voisin(int indice, int bit, int largeur, int hauteur, int cote);
+
+  /**
+   * Calcule la voisine comme {@link #voisin(int, int, int, int, int)}, en passant par les
+   * coordonnées de la cellule. Plus lent, ce calcul sert de référence aux versions propres à
+   * chaque disposition.
+   *
+   * @param indice Indice de la cellule
+   * @param bit Direction, comme dans {@link LabyrintheCompact#voisin(int, int)}
+   * @param largeur Nombre de valeurs possibles pour l'abscisse
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @param cote Côté des blocs
+   * @return Indice de la voisine, ou -1 si elle est hors du labyrinthe
+   */
+  int voisinParCoordonnees(int indice, int bit, int largeur, int hauteur, int cote) {
+    int x = abscisse(indice, hauteur, cote);
+    int y = ordonnee(indice, hauteur, cote);
+    if (bit == LabyrintheCompact.NORD) {
+      return x > 0 ? indice(x - 1, y, hauteur, cote) : -1;
+    } else if (bit == LabyrintheCompact.SUD) {
+      return x < largeur - 1 ? indice(x + 1, y, hauteur, cote) : -1;
+    } else if (bit == LabyrintheCompact.EST) {
+      return y < hauteur - 1 ? indice(x, y + 1, hauteur, cote) : -1;
+    } else if (bit == LabyrintheCompact.OUEST) {
+      return y > 0 ? indice(x, y - 1, hauteur, cote) : -1;
+    }
+    return -1;
+  }
+
+  /**
+   * Retourne le côté des blocs : la plus grande puissance de deux, sans dépasser
+   * {@value #COTE_MAX} ni le petit côté du labyrinthe, pour laquelle les cellules ajoutées
+   * ne dépassent pas un huitième des cellules du labyrinthe.
+   *
+   * @param largeur Nombre de valeurs possibles pour l'abscisse
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @return Côté des blocs
+   */
+  int cote(int largeur, int hauteur) {
+    long cellules = (long) largeur * hauteur;
+    int cote = Math.min(COTE_MAX, Integer.highestOneBit(Math.max(1, Math.min(largeur, hauteur))));
+    while (cote > 1 && (long) blocs(largeur, cote) * blocs(hauteur, cote) * cote * cote
+        > cellules + cellules / 8) {
+      cote >>>= 1;
+    }
+    return cote;
+  }
+
+  /**
+   * Retourne le nombre de cases des tableaux indexés selon cette disposition.
+   *
+   * @param largeur Nombre de valeurs possibles pour l'abscisse
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @return Nombre de cases
+   * @throws ArithmeticException si le nombre de cases dépasse la capacité d'un tableau
+   */
+  int taille(int largeur, int hauteur) {
+    int cote = cote(largeur, hauteur);
+    return Math.multiplyExact(Math.multiplyExact(blocs(largeur, cote), cote),
+        Math.multiplyExact(blocs(hauteur, cote), cote));
+  }
+
+  /**
+   * Retourne le nombre de blocs couvrant une dimension.
+   *
+   * @param dimension Nombre de cellules de la dimension
+   * @param cote Côté des blocs
+   * @return Nombre de blocs
+   */
+  static int blocs(int dimension, int cote) {
+    return (dimension + cote - 1) / cote;
+  }
+
+  /**
+   * Intercale un bit nul entre chacun des 16 bits de poids faible d'un entier.
+   *
+   * @param valeur Entier à étaler
+   * @return Entier étalé sur les bits de rang pair
+   */
+  private static int etaler(int valeur) {
+    valeur &= 0x0000ffff;
+    valeur = (valeur | valeur << 8) & 0x00ff00ff;
+    valeur = (valeur | valeur << 4) & 0x0f0f0f0f;
+    valeur = (valeur | valeur << 2) & 0x33333333;
+    return (valeur | valeur << 1) & BITS_PAIRS;
+  }
+
+  /**
+   * Opération inverse de {@link #etaler(int)} : rassemble les bits de rang pair.
+   *
+   * @param valeur Entier étalé
+   * @return Entier resserré sur 16 bits
+   */
+  private static int resserrer(int valeur) {
+    valeur &= BITS_PAIRS;
+    valeur = (valeur | valeur >>> 1) & 0x33333333;
+    valeur = (valeur | valeur >>> 2) & 0x0f0f0f0f;
+    valeur = (valeur | valeur >>> 4) & 0x00ff00ff;
+    return (valeur | valeur >>> 8) & 0x0000ffff;
+  }
+
+}
@@ -2,12 +2,17 @@ package com.example.defilabyrinthe;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
@@ -53,7 +58,18 @@ public class LabyrinthFx extends Application {
   private static HBox root = new HBox();
 
   /**
-   * Méthode principale de l'application.
+   * Nombre de cellules par tuile hors tas des grands labyrinthes.
+   */
+  private static final int CELLULES_PAR_TUILE = 1 << 20;
+
+  /**
+   * Grand labyrinthe affiché, null tant qu'il n'est pas généré.
+   */
+  private static LabyrintheCompact compact;
+
+  /**
+   * Méthode principale de l'application. Avec le paramètre {@code --taille=N}, un labyrinthe
+   * de N x N cellules est affiché dans une {@link VueLabyrinthe}.
    *
    * @param stage the primary stage for this application, onto which the application scene
    *              can be set. Applications may create other stages, if needed, but they will not be
@@ -61,6 +77,11 @@ public class LabyrinthFx extends Application {
    */
   @Override
   public void start(Stage stage) {
+    String taille = getParameters().getNamed().get("taille");
+    if (taille != null) {
+      startGrandLabyrinthe(stage, Integer.parseInt(taille));
+      return;
+    }
     cell_size = 30;
     grid = generator.getGrid();
 
@@ -109,6 +130,99 @@ public class LabyrinthFx extends Application {
 
   }
 
+  /**
+   * Affiche un grand labyrinthe. La génération et la résolution se font hors du thread JavaFX, et
+   * le labyrinthe est stocké dans des tuiles hors tas.
+   *
+   * @param stage Fenêtre principale
+   * @param taille Côté du labyrinthe
+   */
+  private static void startGrandLabyrinthe(Stage stage, int taille) {
+    VueLabyrinthe vue = new VueLabyrinthe();
+    vue.setPrefSize(1000, 800);
+    HBox.setHgrow(vue, Priority.ALWAYS);
+
+    VBox vbox = new VBox();
+    Button generateNewMaze = new Button("Generate new maze");
+    Button solveMaze = new Button("Solve maze");
+    vbox.getChildren().add(generateNewMaze);
+    vbox.getChildren().add(solveMaze);
+    vbox.getChildren().add(longueurTrajet);
+
+    root.getChildren().add(vbox);
+    root.getChildren().add(vue);
+
+    generateNewMaze.setOnAction(e -> {
+      generateNewMaze.setDisable(true);
+      solveMaze.setDisable(true);
+      longueurTrajet.setText("Génération...");
+      CompletableFuture.supplyAsync(() -> MazeGenerator.generateCompact(taille, taille,
+          Disposition.LIGNES, n -> new StockageHorsTas(n, CELLULES_PAR_TUILE), new Random()))
+          .handle((labyrinthe, erreur) -> {
+            Platform.runLater(() -> {
+              if (erreur != null) {
+                signalerErreur(erreur);
+              } else {
+                LabyrintheCompact ancien = compact;
+                compact = labyrinthe;
+                longueurTrajet.setText("");
+                vue.setLabyrinthe(labyrinthe, labyrinthe.indice(0, 0),
+                    labyrinthe.indice(taille - 1, taille - 1));
+                if (ancien != null) {
+                  vue.fermer(ancien);
+                }
+              }
+              generateNewMaze.setDisable(false);
+              solveMaze.setDisable(compact == null);
+            });
+            return null;
+          });
+    });
+
+    solveMaze.setOnAction(e -> {
+      LabyrintheCompact labyrinthe = compact;
+      int entree = labyrinthe.indice(0, 0);
+      int sortie = labyrinthe.indice(taille - 1, taille - 1);
+      // Pas de nouveau labyrinthe tant que celui-ci est parcouru : il serait fermé sous le
+      // parcours. Le parcours en place n'écrit que des bits ignorés par la vue.
+      generateNewMaze.setDisable(true);
+      solveMaze.setDisable(true);
+      longueurTrajet.setText("Résolution...");
+      CompletableFuture.supplyAsync(() -> new ParcoursEnPlace(labyrinthe).getChemin(entree, sortie))
+          .handle((chemin, erreur) -> {
+            Platform.runLater(() -> {
+              if (erreur != null) {
+                signalerErreur(erreur);
+              } else if (labyrinthe == compact) {
+                longueurTrajet.setText("Longueur du trajet : \n" + (chemin.size() - 1)
+                    + " blocs");
+                vue.setChemin(chemin);
+              }
+              generateNewMaze.setDisable(false);
+              solveMaze.setDisable(false);
+            });
+            return null;
+          });
+    });
+
+    stage.setOnHidden(e -> vue.arreter());
+    stage.setScene(new Scene(root));
+    stage.show();
+    generateNewMaze.fire();
+  }
+
+  /**
+   * Affiche l'erreur d'une génération ou d'une résolution en arrière-plan.
+   *
+   * @param erreur Erreur levée, éventuellement enveloppée par le {@link CompletableFuture}
+   */
+  private static void signalerErreur(Throwable erreur) {
+    Throwable cause = erreur instanceof CompletionException && erreur.getCause() != null
+        ? erreur.getCause() : erreur;
+    cause.printStackTrace();
+    longueurTrajet.setText("Erreur : \n" + cause);
+  }
+
   /**
    * Met à jour le labyrinthe cellule par cellule.
    *
@@ -137,7 +251,7 @@ public class LabyrinthFx extends Application {
    * @param args Arguments de la ligne de commande
    */
   public static void main(String[] args) {
-    launch();
+    launch(args);
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,330 @@
+package com.example.defilabyrinthe;
+
+import java.util.function.IntFunction;
+
+/**
+ * Représentation compacte du labyrinthe : un octet par cellule contenant les passages ouverts.
+ * Les orientations suivent celles de {@link MazeGenerator#updateGraphe()} : le nord et le sud
+ * font varier l'abscisse de la cellule, l'est et l'ouest son ordonnée.
+ *
+ * <p>Les octets sont conservés par un {@link StockagePassages} : un tableau sur le tas par
+ * défaut, ou des tuiles hors du tas ou dans un fichier pour les très grands labyrinthes. La
+ * génération et {@link ParcoursEnPlace} gardent leur état dans les bits libres de ces octets et
+ * n'utilisent donc pas de mémoire du tas proportionnelle au nombre de cellules. Les autres
+ * algorithmes de recherche ({@link BfsParallele}, {@link RequetesChemins},
+ * {@link AnalyseLabyrinthe}) y allouent des tableaux d'entiers de la taille du labyrinthe.
+ */
+public class LabyrintheCompact {
+
+  /**
+   * Bit indiquant un passage ouvert au nord.
+   */
+  public static final int NORD = 1;
+
+  /**
+   * Bit indiquant un passage ouvert à l'est.
+   */
+  public static final int EST = 2;
+
+  /**
+   * Bit indiquant un passage ouvert au sud.
+   */
+  public static final int SUD = 4;
+
+  /**
+   * Bit indiquant un passage ouvert à l'ouest.
+   */
+  public static final int OUEST = 8;
+
+  /**
+   * Bits de l'octet d'une cellule réservés aux passages. Les autres bits peuvent servir aux
+   * algorithmes de génération et de parcours en place.
+   */
+  static final int MASQUE_PASSAGES = 0x0f;
+
+  /**
+   * Nombre de valeurs possibles pour l'abscisse d'une cellule.
+   */
+  private final int largeur;
+
+  /**
+   * Nombre de valeurs possibles pour l'ordonnée d'une cellule.
+   */
+  private final int hauteur;
+
+  /**
+   * Ordre de rangement des cellules dans le tableau des passages.
+   */
+  private final Disposition disposition;
+
+  /**
+   * Côté des blocs parcourus par les courbes de Morton et de Hilbert.
+   */
+  private final int cote;
+
+  /**
+   * Passages ouverts de chaque cellule, indexés par {@link #indice(int, int)}.
+   */
+  private final StockagePassages passages;
+
+  /**
+   * Constructeur rangeant les cellules ligne par ligne. Toutes les cellules sont initialement
+   * fermées.
+   *
+   * @param largeur Nombre de valeurs possibles pour l'abscisse
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   */
+  public LabyrintheCompact(int largeur, int hauteur) {
+    this(largeur, hauteur, Disposition.LIGNES);
+  }
+
+  /**
+   * Constructeur. Toutes les cellules sont initialement fermées.
+   *
+   * @param largeur Nombre de valeurs possibles pour l'abscisse
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @param disposition Ordre de rangement des cellules
+   */
+  public LabyrintheCompact(int largeur, int hauteur, Disposition disposition) {
+    this(largeur, hauteur, disposition, StockageTableau::new);
+  }
+
+  /**
+   * Constructeur. Toutes les cellules du stockage fourni doivent être fermées, sauf s'il contient
+   * déjà un labyrinthe de mêmes dimensions et de même disposition.
+   *
+   * @param largeur Nombre de valeurs possibles pour l'abscisse
+   * @param hauteur Nombre de valeurs possibles pour l'ordonnée
+   * @param disposition Ordre de rangement des cellules
+   * @param stockage Crée le stockage à partir du nombre de cases nécessaires
+   */
+  public LabyrintheCompact(int largeur, int hauteur, Disposition disposition,
+                           IntFunction<StockagePassages> stockage) {
+    this.largeur = largeur;
+    this.hauteur = hauteur;
+    this.disposition = disposition;
+    cote = disposition.cote(largeur, hauteur);
+    passages = stockage.apply(disposition.taille(largeur, hauteur));
+  }
+
+  /**
+   * Retourne l'indice d'une cellule.
+   *
+   * @param x Abscisse de la cellule
+   * @param y Ordonnée de la cellule
+   * @return Indice de la cellule
+   */
+  public int indice(int x, int y) {
+    return disposition.indice(x, y, hauteur, cote);
+  }
+
+  /**
+   * Retourne l'abscisse de la cellule d'indice donné.
+   *
+   * @param indice Indice de la cellule
+   * @return Abscisse de la cellule
+   */
+  public int abscisse(int indice) {
+    return disposition.abscisse(indice, hauteur, cote);
+  }
+
+  /**
+   * Retourne l'ordonnée de la cellule d'indice donné.
+   *
+   * @param indice Indice de la cellule
+   * @return Ordonnée de la cellule
+   */
+  public int ordonnee(int indice) {
+    return disposition.ordonnee(indice, hauteur, cote);
+  }
+
+  /**
+   * Ouvre un passage entre une cellule et sa voisine dans la direction donnée. Le passage est
+   * ouvert des deux côtés, comme une arête de {@link Graphe}.
+   *
+   * @param x Abscisse de la cellule
+   * @param y Ordonnée de la cellule
+   * @param direction Direction du passage (N, E, S, W)
+   */
+  public void ouvrir(int x, int y, char direction) {
+    ouvrir(indice(x, y), bit(direction));
+  }
+
+  /**
+   * Ouvre un passage entre une cellule et sa voisine dans la direction donnée.
+   *
+   * @param indice Indice de la cellule
+   * @param bit Direction du passage
+   * @return Indice de la voisine, ou -1 si elle est hors du labyrinthe
+   */
+  public int ouvrir(int indice, int bit) {
+    int voisin = voisin(indice, bit);
+    if (voisin < 0) {
+      return -1;
+    }
+    passages.ecrire(indice, passages.lire(indice) | bit);
+    passages.ecrire(voisin, passages.lire(voisin) | oppose(bit));
+    return voisin;
+  }
+
+  /**
+   * Ferme un passage entre une cellule et sa voisine dans la direction donnée.
+   *
+   * @param indice Indice de la cellule
+   * @param bit Direction du passage
+   * @return Indice de la voisine, ou -1 si elle est hors du labyrinthe
+   */
+  public int ajouterMur(int indice, int bit) {
+    int voisin = voisin(indice, bit);
+    if (voisin < 0) {
+      return -1;
+    }
+    passages.ecrire(indice, passages.lire(indice) & ~bit);
+    passages.ecrire(voisin, passages.lire(voisin) & ~oppose(bit));
+    return voisin;
+  }
+
+  /**
+   * Retourne les passages ouverts d'une cellule.
+   *
+   * @param indice Indice de la cellule
+   * @return Masque des passages ouverts
+   */
+  public int passages(int indice) {
+    return passages.lire(indice) & MASQUE_PASSAGES;
+  }
+
+  /**
+   * Retourne l'octet complet d'une cellule, passages et bits de travail compris.
+   *
+   * @param indice Indice de la cellule
+   * @return Octet de la cellule
+   */
+  int etat(int indice) {
+    return passages.lire(indice);
+  }
+
+  /**
+   * Remplace l'octet complet d'une cellule.
+   *
+   * @param indice Indice de la cellule
+   * @param etat Nouvel octet de la cellule
+   */
+  void setEtat(int indice, int etat) {
+    passages.ecrire(indice, etat);
+  }
+
+  /**
+   * Retourne le nombre de voisins accessibles depuis une cellule.
+   *
+   * @param indice Indice de la cellule
+   * @return Degré de la cellule dans le graphe
+   */
+  public int degre(int indice) {
+    return Integer.bitCount(passages(indice));
+  }
+
+  /**
+   * Retourne l'indice de la cellule voisine dans une direction, sans tenir compte des murs.
+   *
+   * @param indice Indice de la cellule
+   * @param bit Direction ({@link #NORD}, {@link #EST}, {@link #SUD} ou {@link #OUEST})
+   * @return Indice de la voisine, ou -1 si elle est hors du labyrinthe
+   */
+  public int voisin(int indice, int bit) {
+    return disposition.voisin(indice, bit, largeur, hauteur, cote);
+  }
+
+  /**
+   * Retourne le bit correspondant à une direction.
+   *
+   * @param direction Direction (N, E, S, W)
+   * @return Bit de la direction
+   */
+  public static int bit(char direction) {
+    if (direction == 'N') {
+      return NORD;
+    } else if (direction == 'E') {
+      return EST;
+    } else if (direction == 'S') {
+      return SUD;
+    } else if (direction == 'W') {
+      return OUEST;
+    }
+    return 0;
+  }
+
+  /**
+   * Retourne le bit de la direction opposée.
+   *
+   * @param bit Bit d'une direction
+   * @return Bit de la direction opposée
+   */
+  public static int oppose(int bit) {
+    if (bit == NORD) {
+      return SUD;
+    } else if (bit == EST) {
+      return OUEST;
+    } else if (bit == SUD) {
+      return NORD;
+    } else if (bit == OUEST) {
+      return EST;
+    }
+    return 0;
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de valeurs possibles pour l'abscisse.
+   *
+   * @return Largeur du labyrinthe
+   */
+  public int getLargeur() {
+    return largeur;
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de valeurs possibles pour l'ordonnée.
+   *
+   * @return Hauteur du labyrinthe
+   */
+  public int getHauteur() {
+    return hauteur;
+  }
+
+  /**
+   * Getter permettant de récupérer l'ordre de rangement des cellules.
+   *
+   * @return Disposition des cellules
+   */
+  public Disposition getDisposition() {
+    return disposition;
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de cases des tableaux indexés par
+   * {@link #indice(int, int)}. Selon la disposition, il peut dépasser le nombre de cellules : les
+   * cases en trop sont des cellules fermées, inaccessibles.
+   *
+   * @return Nombre de cases des tableaux
+   */
+  public int getTaille() {
+    return passages.taille();
+  }
+
+  /**
+   * Getter permettant de récupérer le nombre de cellules.
+   *
+   * @return Nombre de cellules du labyrinthe
+   */
+  public int getNombreCellules() {
+    return largeur * hauteur;
+  }
+
+  /**
+   * Libère le stockage du labyrinthe, en réécrivant si besoin les tuiles modifiées.
+   */
+  public void fermer() {
+    passages.close();
+  }
+
+}
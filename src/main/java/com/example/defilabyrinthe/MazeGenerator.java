@@ -3,6 +3,7 @@ package com.example.defilabyrinthe;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Random;
+import java.util.function.IntFunction;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
@@ -158,6 +159,80 @@ public class MazeGenerator {
     }
   }
 
+  /**
+   * Génère directement un labyrinthe compact stocké sur le tas.
+   *
+   * @param width Largeur du labyrinthe
+   * @param height Hauteur du labyrinthe
+   * @param disposition Ordre de rangement des cellules
+   * @param ran Générateur de nombres aléatoires
+   * @return Labyrinthe compact
+   * @see MazeGenerator#generateCompact(int, int, Disposition, IntFunction, Random)
+   */
+  public static LabyrintheCompact generateCompact(int width, int height, Disposition disposition,
+                                                  Random ran) {
+    return generateCompact(width, height, disposition, StockageTableau::new, ran);
+  }
+
+  /**
+   * Génère directement un labyrinthe compact, sans créer de cellules ni de graphe. Le passage est
+   * creusé comme dans {@link MazeGenerator#carve_passage_from(int, int)}, puis des murs sont
+   * enlevés comme dans {@link MazeGenerator#removeRandomWalls()}.
+   *
+   * <p>Au lieu d'une pile, chaque cellule creusée garde dans les bits de poids fort de son octet
+   * la direction de la cellule d'où elle a été atteinte : la génération n'utilise ainsi aucune
+   * mémoire proportionnelle à la taille du labyrinthe en dehors du stockage. Les cellules étant
+   * parcourues par coordonnées, la même graine donne le même labyrinthe quelle que soit la
+   * disposition ou le stockage.
+   *
+   * @param width Largeur du labyrinthe
+   * @param height Hauteur du labyrinthe
+   * @param disposition Ordre de rangement des cellules
+   * @param stockage Crée le stockage à partir du nombre de cases nécessaires ; toutes ses
+   *     cellules doivent être fermées, un octet non nul marquant une cellule déjà creusée
+   * @param ran Générateur de nombres aléatoires
+   * @return Labyrinthe compact
+   */
+  public static LabyrintheCompact generateCompact(int width, int height, Disposition disposition,
+                                                  IntFunction<StockagePassages> stockage,
+                                                  Random ran) {
+    LabyrintheCompact compact = new LabyrintheCompact(width, height, disposition, stockage);
+    int[] candidats = new int[4];
+    int depart = compact.indice(ran.nextInt(width), ran.nextInt(height));
+    int cellule = depart;
+    while (cellule >= 0) {
+      int nombre = 0;
+      for (int bit = LabyrintheCompact.NORD; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        int voisin = compact.voisin(cellule, bit);
+        if (voisin >= 0 && voisin != depart && compact.etat(voisin) == 0) {
+          candidats[nombre++] = bit;
+        }
+      }
+      if (nombre == 0) {
+        int retour = compact.etat(cellule) >>> 4;
+        cellule = retour == 0 ? -1 : compact.voisin(cellule, retour);
+        continue;
+      }
+      int bit = candidats[ran.nextInt(nombre)];
+      int voisin = compact.ouvrir(cellule, bit);
+      compact.setEtat(voisin, compact.etat(voisin) | LabyrintheCompact.oppose(bit) << 4);
+      cellule = voisin;
+    }
+
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        int indice = compact.indice(x, y);
+        compact.setEtat(indice, compact.passages(indice));
+        for (int bit = LabyrintheCompact.NORD; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+          if ((compact.passages(indice) & bit) == 0 && ran.nextInt(100) < 10) {
+            compact.ouvrir(indice, bit);
+          }
+        }
+      }
+    }
+    return compact;
+  }
+
   /**
    * Retourne la direction opposée à celle passée en paramètre.
    *
@@ -202,6 +277,48 @@ public class MazeGenerator {
     }
   }
 
+  /**
+   * Construit la représentation compacte du labyrinthe, rangée ligne par ligne.
+   *
+   * @return Labyrinthe compact
+   * @see MazeGenerator#compacter(Disposition)
+   */
+  public LabyrintheCompact compacter() {
+    return compacter(Disposition.LIGNES);
+  }
+
+  /**
+   * Construit la représentation compacte du labyrinthe. Les passages sont les mêmes que les
+   * arêtes ajoutées par {@link MazeGenerator#updateGraphe()}.
+   *
+   * @param disposition Ordre de rangement des cellules
+   * @return Labyrinthe compact
+   */
+  public LabyrintheCompact compacter(Disposition disposition) {
+    LabyrintheCompact compact = new LabyrintheCompact(maze.length, maze[0].length, disposition);
+    for (int y = 0; y < width; y++) {
+      for (int x = 0; x < height; x++) {
+        for (char direction : directions) {
+          if (!maze[y][x].getWall(direction)) {
+            compact.ouvrir(y, x, direction);
+          }
+        }
+      }
+    }
+    return compact;
+  }
+
+  /**
+   * Getter permettant de récupérer une cellule du labyrinthe.
+   *
+   * @param x Abscisse de la cellule
+   * @param y Ordonnée de la cellule
+   * @return Cellule du labyrinthe
+   */
+  public Cell getCell(int x, int y) {
+    return maze[x][y];
+  }
+
   /**
    * Getter permettant de récupérer l'entrée du labyrinthe.
    *
@@ -220,6 +337,26 @@ public class MazeGenerator {
     return exit;
   }
 
+  /**
+   * Setter permettant de modifier l'entrée du labyrinthe.
+   *
+   * @param x Abscisse de la nouvelle entrée
+   * @param y Ordonnée de la nouvelle entrée
+   */
+  public void setEntrance(int x, int y) {
+    entrance = maze[x][y];
+  }
+
+  /**
+   * Setter permettant de modifier la sortie du labyrinthe.
+   *
+   * @param x Abscisse de la nouvelle sortie
+   * @param y Ordonnée de la nouvelle sortie
+   */
+  public void setExit(int x, int y) {
+    exit = maze[x][y];
+  }
+
   /**
    * Getter permettant de récupérer le graphe représentant le labyrinthe.
    *
@@ -0,0 +1,177 @@
+package com.example.defilabyrinthe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Parcours en largeur séquentiel qui garde son état dans le stockage du labyrinthe plutôt que sur
+ * le tas. Comme dans {@link MazeGenerator#generateCompact(int, int, Disposition,
+ * java.util.function.IntFunction, java.util.Random)}, chaque cellule atteinte note dans les bits
+ * de poids fort de son octet la direction de la cellule d'où elle a été atteinte : ces bits
+ * servent à la fois de marque de visite et de prédécesseur, et passent par les mêmes tuiles que
+ * les murs.
+ *
+ * <p>Le tas ne contient que les deux derniers niveaux de la frontière et le chemin trouvé. Un
+ * labyrinthe rangé dans un {@link StockageFichier} peut ainsi être résolu même s'il dépasse la
+ * mémoire physique, là où {@link BfsParallele} alloue huit octets par cellule. Le parcours étant
+ * séquentiel, le verrou de {@link StockageFichier} n'est jamais disputé. Dans un fichier, une
+ * disposition par blocs comme {@link Disposition#MORTON} garde la frontière dans peu de tuiles ;
+ * rangée ligne par ligne, elle s'étale sur la plupart des tuiles, rechargées à chaque niveau.
+ *
+ * <p>Les bits de travail doivent être nuls au départ, ce qui est le cas après la génération ; ils
+ * sont remis à zéro à la fin du parcours. Un seul parcours peut donc porter sur un labyrinthe à
+ * la fois, et le labyrinthe ne doit pas être modifié pendant ce temps.
+ */
+public class ParcoursEnPlace {
+
+  /**
+   * Capacité initiale des niveaux de la frontière.
+   */
+  private static final int CAPACITE_INITIALE = 1024;
+
+  /**
+   * Labyrinthe parcouru.
+   */
+  private final LabyrintheCompact labyrinthe;
+
+  /**
+   * Cellules du niveau en cours.
+   */
+  private int[] courant = new int[CAPACITE_INITIALE];
+
+  /**
+   * Cellules du niveau suivant.
+   */
+  private int[] suivant = new int[CAPACITE_INITIALE];
+
+  /**
+   * Constructeur.
+   *
+   * @param labyrinthe Labyrinthe à parcourir
+   */
+  public ParcoursEnPlace(LabyrintheCompact labyrinthe) {
+    this.labyrinthe = labyrinthe;
+  }
+
+  /**
+   * Calcule le plus court chemin entre deux cellules. Comme {@link Graphe#getChemin(Cell, Cell)},
+   * le chemin commence par l'arrivée.
+   *
+   * @param depart Indice de la cellule de départ
+   * @param arrivee Indice de la cellule d'arrivée
+   * @return Indices des cellules du chemin, vide si l'arrivée n'est pas accessible
+   */
+  public ArrayList<Integer> getChemin(int depart, int arrivee) {
+    ArrayList<Integer> chemin = new ArrayList<>();
+    if (depart == arrivee) {
+      chemin.add(depart);
+      return chemin;
+    }
+    try {
+      if (marquer(depart, arrivee)) {
+        for (int noeud = arrivee; noeud != depart;
+             noeud = labyrinthe.voisin(noeud, labyrinthe.etat(noeud) >>> 4)) {
+          chemin.add(noeud);
+        }
+        chemin.add(depart);
+      }
+    } finally {
+      effacer(depart);
+    }
+    return chemin;
+  }
+
+  /**
+   * Parcourt le labyrinthe niveau par niveau depuis le départ jusqu'à l'arrivée, en notant dans
+   * chaque cellule atteinte la direction de son prédécesseur.
+   *
+   * @param depart Indice de la cellule de départ
+   * @param arrivee Indice de la cellule d'arrivée
+   * @return true si l'arrivée a été atteinte
+   */
+  private boolean marquer(int depart, int arrivee) {
+    courant[0] = depart;
+    int taille = 1;
+    while (taille > 0) {
+      int suivants = 0;
+      for (int i = 0; i < taille; i++) {
+        int noeud = courant[i];
+        int ouverts = labyrinthe.passages(noeud);
+        for (int bit = LabyrintheCompact.NORD; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+          if ((ouverts & bit) == 0) {
+            continue;
+          }
+          int voisin = labyrinthe.voisin(noeud, bit);
+          int etat = labyrinthe.etat(voisin);
+          if (voisin == depart || etat > LabyrintheCompact.MASQUE_PASSAGES) {
+            continue;
+          }
+          labyrinthe.setEtat(voisin, etat | LabyrintheCompact.oppose(bit) << 4);
+          if (voisin == arrivee) {
+            return true;
+          }
+          suivants = ajouter(suivants, voisin);
+        }
+      }
+      int[] echange = courant;
+      courant = suivant;
+      suivant = echange;
+      taille = suivants;
+    }
+    return false;
+  }
+
+  /**
+   * Remet à zéro les bits de travail de toutes les cellules marquées. Chaque cellule marquée est
+   * reliée au départ par ses prédécesseurs, tous marqués : un parcours depuis le départ limité aux
+   * cellules marquées les retrouve toutes.
+   *
+   * @param depart Indice de la cellule de départ
+   */
+  private void effacer(int depart) {
+    courant[0] = depart;
+    int taille = 1;
+    while (taille > 0) {
+      int suivants = 0;
+      for (int i = 0; i < taille; i++) {
+        int noeud = courant[i];
+        int ouverts = labyrinthe.passages(noeud);
+        for (int bit = LabyrintheCompact.NORD; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+          if ((ouverts & bit) == 0) {
+            continue;
+          }
+          int voisin = labyrinthe.voisin(noeud, bit);
+          int etat = labyrinthe.etat(voisin);
+          if (etat > LabyrintheCompact.MASQUE_PASSAGES) {
+            labyrinthe.setEtat(voisin, etat & LabyrintheCompact.MASQUE_PASSAGES);
+            suivants = ajouter(suivants, voisin);
+          }
+        }
+      }
+      int[] echange = courant;
+      courant = suivant;
+      suivant = echange;
+      taille = suivants;
+    }
+    if (courant.length > CAPACITE_INITIALE || suivant.length > CAPACITE_INITIALE) {
+      courant = new int[CAPACITE_INITIALE];
+      suivant = new int[CAPACITE_INITIALE];
+    }
+  }
+
+  /**
+   * Ajoute une cellule au niveau suivant, en l'agrandissant si besoin.
+   *
+   * @param taille Nombre de cellules déjà dans le niveau suivant
+   * @param cellule Indice de la cellule à ajouter
+   * @return Nouveau nombre de cellules du niveau suivant
+   */
+  private int ajouter(int taille, int cellule) {
+    if (taille == suivant.length) {
+      suivant = Arrays.copyOf(suivant, taille * 2);
+    }
+    suivant[taille] = cellule;
+    return taille + 1;
+  }
+
+}
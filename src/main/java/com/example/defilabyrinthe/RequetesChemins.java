@@ -0,0 +1,350 @@
+package com.example.defilabyrinthe;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Résolution d'un lot de requêtes de plus court chemin sur un même labyrinthe.
+ *
+ * <p>Les requêtes sont triées et regroupées par cellule de départ : un seul parcours en largeur
+ * répond à toutes les requêtes d'un groupe et s'arrête dès que toutes leurs arrivées sont
+ * atteintes. Les groupes sont traités en parallèle.
+ *
+ * <p>Chaque groupe traité en même temps utilise trois tableaux d'entiers de la taille du
+ * labyrinthe, quatre si les chemins sont demandés : environ 12 ou 16 octets par cellule et par
+ * thread du pool.
+ */
+public class RequetesChemins {
+
+  /**
+   * Nombre de tâches par thread du pool, pour équilibrer la charge entre des groupes de coûts
+   * différents.
+   */
+  private static final int TACHES_PAR_THREAD = 4;
+
+  /**
+   * Labyrinthe sur lequel portent les requêtes.
+   */
+  private final LabyrintheCompact labyrinthe;
+
+  /**
+   * Pool de threads utilisé pour traiter les groupes.
+   */
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructeur utilisant le pool commun.
+   *
+   * @param labyrinthe Labyrinthe sur lequel portent les requêtes
+   */
+  public RequetesChemins(LabyrintheCompact labyrinthe) {
+    this(labyrinthe, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructeur.
+   *
+   * @param labyrinthe Labyrinthe sur lequel portent les requêtes
+   * @param pool Pool de threads utilisé pour traiter les groupes
+   */
+  public RequetesChemins(LabyrintheCompact labyrinthe, ForkJoinPool pool) {
+    this.labyrinthe = labyrinthe;
+    this.pool = pool;
+  }
+
+  /**
+   * Calcule la longueur du plus court chemin de chaque requête.
+   *
+   * @param paires Requêtes, chacune de la forme {xDépart, yDépart, xArrivée, yArrivée}
+   * @return Distance de chaque requête, dans l'ordre des requêtes, -1 si l'arrivée est
+   *     inaccessible
+   * @throws IllegalArgumentException si une requête porte sur une cellule hors du labyrinthe
+   */
+  public int[] distances(int[][] paires) {
+    int[] distances = new int[paires.length];
+    resoudre(paires, distances, null);
+    return distances;
+  }
+
+  /**
+   * Calcule le plus court chemin de chaque requête. Comme {@link Graphe#getChemin(Cell, Cell)},
+   * chaque chemin commence par l'arrivée.
+   *
+   * @param paires Requêtes, chacune de la forme {xDépart, yDépart, xArrivée, yArrivée}
+   * @return Indices des cellules du chemin de chaque requête, null si l'arrivée est inaccessible
+   * @throws IllegalArgumentException si une requête porte sur une cellule hors du labyrinthe
+   */
+  public int[][] chemins(int[][] paires) {
+    int[][] chemins = new int[paires.length][];
+    resoudre(paires, new int[paires.length], chemins);
+    return chemins;
+  }
+
+  /**
+   * Résout les requêtes groupées par cellule de départ. Les tableaux de travail ne vivent que le
+   * temps de l'appel : une tâche reprend ceux d'une tâche terminée, et de nouveaux ne sont créés
+   * que pour les tâches traitées en même temps, au plus une par thread.
+   *
+   * @param paires Requêtes
+   * @param distances Distances à remplir
+   * @param chemins Chemins à remplir, null pour ne calculer que les distances
+   */
+  private void resoudre(int[][] paires, int[] distances, int[][] chemins) {
+    if (paires.length == 0) {
+      return;
+    }
+    // Clé de tri : cellule de départ sur les 32 bits de poids fort, numéro de la requête ensuite.
+    long[] cles = new long[paires.length];
+    int[] departs = new int[paires.length];
+    int[] arrivees = new int[paires.length];
+    for (int i = 0; i < paires.length; i++) {
+      departs[i] = indice(paires[i][0], paires[i][1]);
+      arrivees[i] = indice(paires[i][2], paires[i][3]);
+      cles[i] = (long) departs[i] << 32 | i;
+    }
+    Arrays.parallelSort(cles);
+    int[] requetes = new int[paires.length];
+    int nombreGroupes = 0;
+    int[] debutsGroupes = new int[paires.length + 1];
+    for (int i = 0; i < cles.length; i++) {
+      requetes[i] = (int) cles[i];
+      if (i == 0 || cles[i] >>> 32 != cles[i - 1] >>> 32) {
+        debutsGroupes[nombreGroupes++] = i;
+      }
+    }
+    debutsGroupes[nombreGroupes] = paires.length;
+    int groupes = nombreGroupes;
+    int grain = Math.max(1, groupes / (pool.getParallelism() * TACHES_PAR_THREAD));
+    Queue<Espace> espaces = new ConcurrentLinkedQueue<>();
+    pool.invoke(new Groupes(0, groupes, grain, (debut, fin) -> {
+      Espace espace = espaces.poll();
+      if (espace == null) {
+        espace = new Espace(labyrinthe.getTaille(), chemins != null);
+      }
+      for (int groupe = debut; groupe < fin; groupe++) {
+        resoudreGroupe(espace, requetes, debutsGroupes[groupe], debutsGroupes[groupe + 1],
+            departs, arrivees, distances, chemins);
+      }
+      espaces.add(espace);
+    }));
+  }
+
+  /**
+   * Retourne l'indice d'une cellule d'une requête.
+   *
+   * @param x Abscisse de la cellule
+   * @param y Ordonnée de la cellule
+   * @return Indice de la cellule
+   * @throws IllegalArgumentException si la cellule est hors du labyrinthe
+   */
+  private int indice(int x, int y) {
+    if (x < 0 || x >= labyrinthe.getLargeur() || y < 0 || y >= labyrinthe.getHauteur()) {
+      throw new IllegalArgumentException("Cellule hors du labyrinthe : (" + x + ", " + y + ")");
+    }
+    return labyrinthe.indice(x, y);
+  }
+
+  /**
+   * Résout les requêtes d'un groupe partageant la même cellule de départ.
+   *
+   * @param espace Tableaux de travail, utilisés par ce seul groupe pendant l'appel
+   * @param requetes Numéros des requêtes triées
+   * @param debut Position de la première requête du groupe
+   * @param fin Position suivant la dernière requête du groupe
+   * @param departs Cellule de départ de chaque requête
+   * @param arrivees Cellule d'arrivée de chaque requête
+   * @param distances Distances à remplir
+   * @param chemins Chemins à remplir, null pour ne calculer que les distances
+   */
+  private void resoudreGroupe(Espace espace, int[] requetes, int debut, int fin, int[] departs,
+                              int[] arrivees, int[] distances, int[][] chemins) {
+    int generation = espace.nouvelleGeneration();
+    int depart = departs[requetes[debut]];
+    int[] cibles = cibles(requetes, debut, fin, arrivees);
+    int restantes = cibles.length;
+
+    espace.marques[depart] = generation;
+    espace.distances[depart] = 0;
+    if (chemins != null) {
+      espace.predecessors[depart] = -1;
+    }
+    if (Arrays.binarySearch(cibles, depart) >= 0) {
+      restantes--;
+    }
+    espace.file[0] = depart;
+    int tete = 0;
+    int queue = 1;
+    while (tete < queue && restantes > 0) {
+      int noeud = espace.file[tete++];
+      int ouverts = labyrinthe.passages(noeud);
+      for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        if ((ouverts & bit) == 0) {
+          continue;
+        }
+        int voisin = labyrinthe.voisin(noeud, bit);
+        if (espace.marques[voisin] != generation) {
+          espace.marques[voisin] = generation;
+          espace.distances[voisin] = espace.distances[noeud] + 1;
+          if (chemins != null) {
+            espace.predecessors[voisin] = noeud;
+          }
+          espace.file[queue++] = voisin;
+          if (Arrays.binarySearch(cibles, voisin) >= 0) {
+            restantes--;
+          }
+        }
+      }
+    }
+
+    for (int i = debut; i < fin; i++) {
+      int requete = requetes[i];
+      int arrivee = arrivees[requete];
+      boolean atteinte = espace.marques[arrivee] == generation;
+      distances[requete] = atteinte ? espace.distances[arrivee] : -1;
+      if (chemins != null && atteinte) {
+        int[] chemin = new int[espace.distances[arrivee] + 1];
+        int noeud = arrivee;
+        for (int j = 0; j < chemin.length; j++) {
+          chemin[j] = noeud;
+          noeud = espace.predecessors[noeud];
+        }
+        chemins[requete] = chemin;
+      }
+    }
+  }
+
+  /**
+   * Retourne les arrivées distinctes d'un groupe, triées pour être cherchées par dichotomie.
+   *
+   * @param requetes Numéros des requêtes triées
+   * @param debut Position de la première requête du groupe
+   * @param fin Position suivant la dernière requête du groupe
+   * @param arrivees Cellule d'arrivée de chaque requête
+   * @return Arrivées du groupe, triées et sans doublon
+   */
+  private static int[] cibles(int[] requetes, int debut, int fin, int[] arrivees) {
+    int[] cibles = new int[fin - debut];
+    for (int i = debut; i < fin; i++) {
+      cibles[i - debut] = arrivees[requetes[i]];
+    }
+    Arrays.sort(cibles);
+    int distinctes = 0;
+    for (int i = 0; i < cibles.length; i++) {
+      if (i == 0 || cibles[i] != cibles[i - 1]) {
+        cibles[distinctes++] = cibles[i];
+      }
+    }
+    return Arrays.copyOf(cibles, distinctes);
+  }
+
+  /**
+   * Tableaux de travail d'un groupe. Une cellule n'est valide que si sa marque vaut la génération
+   * courante, ce qui évite de réinitialiser les tableaux entre deux groupes.
+   */
+  private static final class Espace {
+
+    /**
+     * Génération courante.
+     */
+    private int generation;
+
+    /**
+     * Génération à laquelle chaque cellule a été atteinte.
+     */
+    private final int[] marques;
+
+    /**
+     * Distance de chaque cellule au départ du groupe.
+     */
+    private final int[] distances;
+
+    /**
+     * Prédécesseur de chaque cellule sur un plus court chemin, null si seules les distances sont
+     * demandées.
+     */
+    private final int[] predecessors;
+
+    /**
+     * File du parcours en largeur.
+     */
+    private final int[] file;
+
+    Espace(int taille, boolean avecChemins) {
+      marques = new int[taille];
+      distances = new int[taille];
+      predecessors = avecChemins ? new int[taille] : null;
+      file = new int[taille];
+    }
+
+    /**
+     * Passe à la génération suivante.
+     *
+     * @return Nouvelle génération
+     */
+    int nouvelleGeneration() {
+      if (generation == Integer.MAX_VALUE) {
+        Arrays.fill(marques, 0);
+        generation = 0;
+      }
+      return ++generation;
+    }
+  }
+
+  /**
+   * Traitement appliqué à une plage de groupes.
+   */
+  @FunctionalInterface
+  private interface Traitement {
+    void traiter(int debut, int fin);
+  }
+
+  /**
+   * Tâche découpant récursivement une plage de groupes.
+   */
+  private static final class Groupes extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Premier groupe de la plage.
+     */
+    private final int debut;
+
+    /**
+     * Groupe suivant le dernier groupe de la plage.
+     */
+    private final int fin;
+
+    /**
+     * Nombre de groupes en dessous duquel la plage n'est plus découpée.
+     */
+    private final int grain;
+
+    /**
+     * Traitement appliqué à la plage.
+     */
+    private final Traitement traitement;
+
+    Groupes(int debut, int fin, int grain, Traitement traitement) {
+      this.debut = debut;
+      this.fin = fin;
+      this.grain = grain;
+      this.traitement = traitement;
+    }
+
+    @Override
+    protected void compute() {
+      if (fin - debut <= grain) {
+        traitement.traiter(debut, fin);
+        return;
+      }
+      int milieu = (debut + fin) >>> 1;
+      invokeAll(new Groupes(debut, milieu, grain, traitement),
+          new Groupes(milieu, fin, grain, traitement));
+    }
+  }
+
+}
@@ -0,0 +1,273 @@
+package com.example.defilabyrinthe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Stockage des octets dans un fichier, découpé en tuiles. Seules les tuiles les plus récemment
+ * utilisées sont gardées en mémoire, hors du tas ; les autres sont réécrites dans le fichier si
+ * elles ont été modifiées. Le nombre de tampons hors du tas est borné par le nombre de tuiles en
+ * mémoire : le tampon de la tuile évincée est réutilisé pour la tuile chargée à sa place. Le
+ * labyrinthe peut ainsi dépasser la mémoire physique, aussi bien pour
+ * {@link MazeGenerator#generateCompact(int, int, Disposition, java.util.function.IntFunction,
+ * java.util.Random)} que pour {@link ParcoursEnPlace}, qui gardent leur état dans les octets des
+ * cellules ; les autres algorithmes de recherche allouent en revanche leurs propres tableaux sur
+ * le tas.
+ *
+ * <p>Les accès sont synchronisés : le cache de tuiles est partagé par tous les threads, dont les
+ * lectures se font donc une à une. Ce stockage convient aux traitements séquentiels, pas aux
+ * parcours parallèles.
+ */
+public class StockageFichier implements StockagePassages {
+
+  /**
+   * Zéros recopiés dans la partie d'une tuile absente du fichier.
+   */
+  private static final byte[] ZEROS = new byte[4096];
+
+  /**
+   * Nombre de cellules stockées.
+   */
+  private final int taille;
+
+  /**
+   * Logarithme en base 2 du nombre de cellules d'une tuile.
+   */
+  private final int decalage;
+
+  /**
+   * Nombre maximal de tuiles gardées en mémoire.
+   */
+  private final int tuilesEnMemoire;
+
+  /**
+   * Fichier contenant les tuiles.
+   */
+  private final FileChannel fichier;
+
+  /**
+   * Tuiles en mémoire, de la moins récemment utilisée à la plus récente.
+   */
+  private final LinkedHashMap<Integer, Tuile> cache;
+
+  /**
+   * Dernière tuile utilisée, pour éviter une recherche dans le cache lors d'accès consécutifs.
+   */
+  private Tuile derniere;
+
+  /**
+   * Constructeur. Le fichier est créé s'il n'existe pas et vidé sinon : toutes les cellules sont
+   * fermées.
+   *
+   * @param chemin Chemin du fichier
+   * @param taille Nombre de cellules
+   * @param tailleTuile Nombre de cellules d'une tuile, arrondi à la puissance de deux supérieure
+   * @param tuilesEnMemoire Nombre maximal de tuiles gardées en mémoire
+   * @throws IOException Si le fichier ne peut pas être ouvert
+   */
+  public StockageFichier(Path chemin, int taille, int tailleTuile, int tuilesEnMemoire)
+      throws IOException {
+    this(FileChannel.open(chemin, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), taille, tailleTuile,
+        tuilesEnMemoire);
+  }
+
+  /**
+   * Constructeur à partir d'un fichier ouvert.
+   *
+   * @param fichier Fichier contenant les tuiles
+   * @param taille Nombre de cellules
+   * @param tailleTuile Nombre de cellules d'une tuile, arrondi à la puissance de deux supérieure
+   * @param tuilesEnMemoire Nombre maximal de tuiles gardées en mémoire
+   */
+  private StockageFichier(FileChannel fichier, int taille, int tailleTuile,
+                          int tuilesEnMemoire) {
+    this.taille = taille;
+    this.fichier = fichier;
+    decalage = 32 - Integer.numberOfLeadingZeros(Math.max(1, tailleTuile) - 1);
+    this.tuilesEnMemoire = Math.max(1, tuilesEnMemoire);
+    cache = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Ouvre un fichier existant en conservant son contenu, par exemple pour relire un labyrinthe
+   * sauvegardé avec {@link LabyrintheCompact#LabyrintheCompact(int, int, Disposition,
+   * java.util.function.IntFunction)}. Un tel stockage ne doit pas servir à générer un labyrinthe,
+   * la génération supposant toutes les cellules fermées.
+   *
+   * @param chemin Chemin du fichier
+   * @param taille Nombre de cellules
+   * @param tailleTuile Nombre de cellules d'une tuile, arrondi à la puissance de deux supérieure
+   * @param tuilesEnMemoire Nombre maximal de tuiles gardées en mémoire
+   * @return Stockage lisant le fichier
+   * @throws IOException Si le fichier ne peut pas être ouvert
+   */
+  public static StockageFichier ouvrir(Path chemin, int taille, int tailleTuile,
+                                       int tuilesEnMemoire) throws IOException {
+    return new StockageFichier(FileChannel.open(chemin, StandardOpenOption.READ,
+        StandardOpenOption.WRITE), taille, tailleTuile, tuilesEnMemoire);
+  }
+
+  @Override
+  public synchronized int lire(int indice) {
+    return tuile(indice >>> decalage).octets.get(indice & ((1 << decalage) - 1)) & 0xff;
+  }
+
+  @Override
+  public synchronized void ecrire(int indice, int valeur) {
+    Tuile tuile = tuile(indice >>> decalage);
+    tuile.octets.put(indice & ((1 << decalage) - 1), (byte) valeur);
+    tuile.modifiee = true;
+  }
+
+  @Override
+  public int taille() {
+    return taille;
+  }
+
+  /**
+   * Retourne une tuile, en la chargeant depuis le fichier si elle n'est pas en mémoire.
+   *
+   * @param numero Numéro de la tuile
+   * @return Tuile
+   */
+  private Tuile tuile(int numero) {
+    if (derniere != null && derniere.numero == numero) {
+      return derniere;
+    }
+    Tuile tuile = cache.get(numero);
+    if (tuile == null) {
+      tuile = charger(numero, evincer());
+      cache.put(numero, tuile);
+    }
+    derniere = tuile;
+    return tuile;
+  }
+
+  /**
+   * Si le cache est plein, en retire la tuile la moins récemment utilisée après l'avoir
+   * sauvegardée.
+   *
+   * @return Tampon de la tuile retirée, à réutiliser, ou null si le cache n'était pas plein
+   */
+  private ByteBuffer evincer() {
+    if (cache.size() < tuilesEnMemoire) {
+      return null;
+    }
+    Iterator<Tuile> tuiles = cache.values().iterator();
+    Tuile plusAncienne = tuiles.next();
+    sauvegarder(plusAncienne);
+    tuiles.remove();
+    derniere = null;
+    return plusAncienne.octets;
+  }
+
+  /**
+   * Lit une tuile dans le fichier. Les parties absentes du fichier se lisent comme des zéros.
+   *
+   * @param numero Numéro de la tuile
+   * @param octets Tampon à réutiliser, ou null pour en allouer un
+   * @return Tuile chargée
+   */
+  private Tuile charger(int numero, ByteBuffer octets) {
+    if (octets == null) {
+      octets = ByteBuffer.allocateDirect((int) Math.min(1L << decalage, taille));
+    }
+    long debut = (long) numero << decalage;
+    octets.clear();
+    octets.limit((int) Math.min(1L << decalage, taille - debut));
+    try {
+      while (octets.hasRemaining()) {
+        if (fichier.read(octets, debut + octets.position()) < 0) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    while (octets.hasRemaining()) {
+      octets.put(ZEROS, 0, Math.min(ZEROS.length, octets.remaining()));
+    }
+    return new Tuile(numero, octets);
+  }
+
+  /**
+   * Réécrit une tuile dans le fichier si elle a été modifiée.
+   *
+   * @param tuile Tuile à sauvegarder
+   */
+  private void sauvegarder(Tuile tuile) {
+    if (!tuile.modifiee) {
+      return;
+    }
+    ByteBuffer octets = tuile.octets.duplicate();
+    octets.rewind();
+    long debut = (long) tuile.numero << decalage;
+    try {
+      while (octets.hasRemaining()) {
+        fichier.write(octets, debut + octets.position());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    tuile.modifiee = false;
+  }
+
+  /**
+   * Réécrit dans le fichier toutes les tuiles modifiées.
+   */
+  public synchronized void vider() {
+    for (Tuile tuile : cache.values()) {
+      sauvegarder(tuile);
+    }
+  }
+
+  /**
+   * Réécrit les tuiles modifiées puis ferme le fichier. Comme pour {@link StockageHorsTas#close()},
+   * les tampons des tuiles sont rendus lors du passage du ramasse-miettes.
+   */
+  @Override
+  public synchronized void close() {
+    vider();
+    cache.clear();
+    derniere = null;
+    try {
+      fichier.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Tuile chargée en mémoire.
+   */
+  private static final class Tuile {
+
+    /**
+     * Numéro de la tuile dans le fichier.
+     */
+    private final int numero;
+
+    /**
+     * Octets des cellules de la tuile.
+     */
+    private final ByteBuffer octets;
+
+    /**
+     * Indique si la tuile a été modifiée depuis son chargement.
+     */
+    private boolean modifiee;
+
+    Tuile(int numero, ByteBuffer octets) {
+      this.numero = numero;
+      this.octets = octets;
+    }
+  }
+
+}
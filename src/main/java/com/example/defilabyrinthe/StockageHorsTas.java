@@ -0,0 +1,78 @@
+package com.example.defilabyrinthe;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stockage des octets hors du tas, par tuiles allouées avec {@link ByteBuffer#allocateDirect(int)}.
+ * Une tuile n'est allouée qu'à sa première écriture : une tuile jamais écrite se lit comme des
+ * zéros.
+ *
+ * <p>Les lectures ne sont pas synchronisées : plusieurs threads peuvent lire le labyrinthe en
+ * même temps, du moment que les écritures sont terminées.
+ */
+public class StockageHorsTas implements StockagePassages {
+
+  /**
+   * Nombre de cellules stockées.
+   */
+  private final int taille;
+
+  /**
+   * Logarithme en base 2 du nombre de cellules d'une tuile.
+   */
+  private final int decalage;
+
+  /**
+   * Tuiles allouées, null pour les tuiles jamais écrites.
+   */
+  private final ByteBuffer[] tuiles;
+
+  /**
+   * Constructeur.
+   *
+   * @param taille Nombre de cellules
+   * @param tailleTuile Nombre de cellules d'une tuile, arrondi à la puissance de deux supérieure
+   */
+  public StockageHorsTas(int taille, int tailleTuile) {
+    this.taille = taille;
+    decalage = 32 - Integer.numberOfLeadingZeros(Math.max(1, tailleTuile) - 1);
+    tuiles = new ByteBuffer[(int) (((long) taille + (1L << decalage) - 1) >>> decalage)];
+  }
+
+  @Override
+  public int lire(int indice) {
+    ByteBuffer tuile = tuiles[indice >>> decalage];
+    return tuile == null ? 0 : tuile.get(indice & ((1 << decalage) - 1)) & 0xff;
+  }
+
+  @Override
+  public void ecrire(int indice, int valeur) {
+    int numero = indice >>> decalage;
+    if (tuiles[numero] == null) {
+      if (valeur == 0) {
+        return;
+      }
+      long debut = (long) numero << decalage;
+      tuiles[numero] = ByteBuffer.allocateDirect((int) Math.min(1L << decalage, taille - debut));
+    }
+    tuiles[numero].put(indice & ((1 << decalage) - 1), (byte) valeur);
+  }
+
+  @Override
+  public int taille() {
+    return taille;
+  }
+
+  /**
+   * Oublie les tuiles. Les tampons ne sont pas libérés explicitement : la mémoire hors du tas
+   * n'est rendue qu'une fois les tampons récupérés par le ramasse-miettes. Celui-ci est déclenché
+   * au besoin par une allocation qui dépasserait {@code -XX:MaxDirectMemorySize}, si bien que les
+   * labyrinthes successifs ne s'accumulent pas au-delà de cette limite.
+   */
+  @Override
+  public void close() {
+    Arrays.fill(tuiles, null);
+  }
+
+}
@@ -0,0 +1,40 @@
+package com.example.defilabyrinthe;
+
+import java.io.Closeable;
+
+/**
+ * Stockage des octets d'un {@link LabyrintheCompact}, un par cellule.
+ */
+public interface StockagePassages extends Closeable {
+
+  /**
+   * Lit l'octet d'une cellule.
+   *
+   * @param indice Indice de la cellule
+   * @return Octet de la cellule, entre 0 et 255
+   */
+  int lire(int indice);
+
+  /**
+   * Écrit l'octet d'une cellule.
+   *
+   * @param indice Indice de la cellule
+   * @param valeur Octet de la cellule, entre 0 et 255
+   */
+  void ecrire(int indice, int valeur);
+
+  /**
+   * Retourne le nombre de cellules stockées.
+   *
+   * @return Nombre de cellules
+   */
+  int taille();
+
+  /**
+   * Libère les ressources du stockage. Par défaut, il n'y a rien à libérer.
+   */
+  @Override
+  default void close() {
+  }
+
+}
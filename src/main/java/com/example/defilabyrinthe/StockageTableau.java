@@ -0,0 +1,37 @@
+package com.example.defilabyrinthe;
+
+/**
+ * Stockage des octets dans un tableau sur le tas.
+ */
+public class StockageTableau implements StockagePassages {
+
+  /**
+   * Octets des cellules.
+   */
+  private final byte[] octets;
+
+  /**
+   * Constructeur.
+   *
+   * @param taille Nombre de cellules
+   */
+  public StockageTableau(int taille) {
+    octets = new byte[taille];
+  }
+
+  @Override
+  public int lire(int indice) {
+    return octets[indice] & 0xff;
+  }
+
+  @Override
+  public void ecrire(int indice, int valeur) {
+    octets[indice] = (byte) valeur;
+  }
+
+  @Override
+  public int taille() {
+    return octets.length;
+  }
+
+}
@@ -0,0 +1,1004 @@
+package com.example.defilabyrinthe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+
+/**
+ * Affichage zoomable et déplaçable d'un {@link LabyrintheCompact}, adapté aux très grands
+ * labyrinthes. Comme dans {@link MazeGenerator#updateGrid(int)}, l'abscisse d'une cellule donne
+ * sa ligne et son ordonnée sa colonne.
+ *
+ * <p>Le labyrinthe est découpé en tuiles de {@value #TAILLE_TUILE} pixels, dessinées par niveau
+ * de zoom : de plusieurs pixels par cellule, avec les murs, jusqu'à plusieurs cellules par pixel,
+ * où chaque pixel résume un bloc de cellules. Les tuiles sont construites en arrière-plan, écrites
+ * d'un bloc avec un {@link javafx.scene.image.PixelWriter} et gardées en cache ; seules les tuiles
+ * visibles sont dessinées. La molette zoome et le glisser de la souris déplace la vue.
+ *
+ * <p>Pour les vues d'ensemble, les murs sont comptés une fois par labyrinthe dans une pyramide de
+ * blocs, chaque échelon étant déduit du précédent : un pixel coûte alors une lecture, quel que
+ * soit le nombre de cellules qu'il résume.
+ *
+ * <p>Le chemin est dessiné sur des calques transparents, posés sur les seules tuiles qu'il
+ * traverse : un nouveau chemin ne reconstruit que ces calques, et les tuiles des murs restent en
+ * cache.
+ */
+public class VueLabyrinthe extends Pane {
+
+  /**
+   * Côté d'une tuile, en pixels.
+   */
+  private static final int TAILLE_TUILE = 256;
+
+  /**
+   * Nombre maximal de tuiles gardées en cache.
+   */
+  private static final int TUILES_EN_CACHE = 512;
+
+  /**
+   * Niveau de zoom le plus éloigné : 2^10 cellules par pixel.
+   */
+  private static final int NIVEAU_MIN = -10;
+
+  /**
+   * Niveau de zoom le plus proche : 2^5 pixels par cellule.
+   */
+  private static final int NIVEAU_MAX = 5;
+
+  /**
+   * Nombre maximal de calques du chemin gardés en cache.
+   */
+  private static final int CALQUES_EN_CACHE = 128;
+
+  /**
+   * Bit distinguant la clé d'un calque de celle de la tuile qu'il recouvre.
+   */
+  private static final long CALQUE = 1L << 62;
+
+  /**
+   * Logarithme en base 2 du nombre de cellules couvertes par le côté d'une tuile au niveau le plus
+   * éloigné.
+   */
+  private static final int ECHELONS = Integer.numberOfTrailingZeros(TAILLE_TUILE) - NIVEAU_MIN;
+
+  /**
+   * Nombre de niveaux plus grossiers consultés pour remplacer une tuile pas encore construite.
+   */
+  private static final int NIVEAUX_DE_REPLI = 4;
+
+  /**
+   * Plus petit échelon de la pyramide des murs : ses blocs font 8 x 8 cellules, soit un entier
+   * pour 64 cellules. Aux échelons inférieurs, un pixel résume au plus 16 cellules, lues
+   * directement.
+   */
+  private static final int PREMIER_ECHELON_COMPTE = 3;
+
+  /**
+   * Couleur hors du labyrinthe.
+   */
+  private static final int FOND = 0xff404040;
+
+  /**
+   * Couleur d'une cellule.
+   */
+  private static final int CELLULE = 0xffffffff;
+
+  /**
+   * Couleur des murs.
+   */
+  private static final int MUR = 0xff000000;
+
+  /**
+   * Couleur du chemin, comme dans {@link MazeGenerator#updateGrid(java.util.ArrayList, int)}.
+   */
+  private static final int CHEMIN = argb(Color.LIGHTBLUE);
+
+  /**
+   * Couleur transparente, hors du chemin sur un calque.
+   */
+  private static final int TRANSPARENT = 0;
+
+  /**
+   * Couleur de l'entrée.
+   */
+  private static final int ENTREE = argb(Color.GREEN);
+
+  /**
+   * Couleur de la sortie.
+   */
+  private static final int SORTIE = argb(Color.RED);
+
+  /**
+   * Canvas sur lequel les tuiles visibles sont dessinées.
+   */
+  private final Canvas canvas = new Canvas();
+
+  /**
+   * Threads construisant les tuiles.
+   */
+  private final ExecutorService executeur = Executors.newFixedThreadPool(
+      Math.max(1, Runtime.getRuntime().availableProcessors() - 1), tache -> {
+        Thread thread = new Thread(tache, "tuiles-labyrinthe");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * Tuiles construites, de la moins récemment dessinée à la plus récente.
+   */
+  private final LinkedHashMap<Long, WritableImage> cache =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, WritableImage> plusAncienne) {
+          return size() > TUILES_EN_CACHE;
+        }
+      };
+
+  /**
+   * Calques du chemin construits, du moins récemment dessiné au plus récent.
+   */
+  private final LinkedHashMap<Long, WritableImage> calques =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, WritableImage> plusAncien) {
+          return size() > CALQUES_EN_CACHE;
+        }
+      };
+
+  /**
+   * Tuiles et calques demandés et pas encore construits, avec le contenu à dessiner. Une tuile qui
+   * n'est plus visible est retirée, et sa construction abandonnée si elle n'a pas commencé ; une
+   * tuile construite n'est gardée que si elle est encore associée au même contenu.
+   */
+  private final Map<Long, Contenu> demandees = new ConcurrentHashMap<>();
+
+  /**
+   * Verrou pris en lecture pendant la construction d'une tuile, et en écriture pour fermer un
+   * labyrinthe qui n'est plus affiché.
+   */
+  private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+
+  /**
+   * Contenu affiché, null tant qu'aucun labyrinthe n'est affiché.
+   */
+  private Contenu contenu;
+
+  /**
+   * Nombre de pixels par cellule.
+   */
+  private double echelle = 1;
+
+  /**
+   * Colonne, en cellules, du bord gauche de la vue.
+   */
+  private double origineColonne;
+
+  /**
+   * Ligne, en cellules, du bord haut de la vue.
+   */
+  private double origineLigne;
+
+  /**
+   * Position de la souris lors du dernier événement de glisser.
+   */
+  private double sourisX;
+  private double sourisY;
+
+  /**
+   * Indique si un dessin est déjà prévu.
+   */
+  private boolean dessinPrevu;
+
+  /**
+   * Constructeur.
+   */
+  public VueLabyrinthe() {
+    getChildren().add(canvas);
+    setStyle("-fx-background-color: #404040;");
+    setOnScroll(e -> {
+      zoomer(Math.exp(e.getDeltaY() * 0.002), e.getX(), e.getY());
+      e.consume();
+    });
+    setOnMousePressed(e -> {
+      sourisX = e.getX();
+      sourisY = e.getY();
+    });
+    setOnMouseDragged(e -> {
+      origineColonne -= (e.getX() - sourisX) / echelle;
+      origineLigne -= (e.getY() - sourisY) / echelle;
+      sourisX = e.getX();
+      sourisY = e.getY();
+      dessiner();
+    });
+  }
+
+  /**
+   * Affiche un nouveau labyrinthe, en entier.
+   *
+   * @param labyrinthe Labyrinthe à afficher
+   * @param entree Indice de la cellule d'entrée
+   * @param sortie Indice de la cellule de sortie
+   */
+  public void setLabyrinthe(LabyrintheCompact labyrinthe, int entree, int sortie) {
+    contenu = new Contenu(labyrinthe, entree, sortie, null, null, new MursParBloc(labyrinthe));
+    cache.clear();
+    calques.clear();
+    demandees.clear();
+    ajuster();
+  }
+
+  /**
+   * Met en évidence un chemin, par exemple celui trouvé par {@link BfsParallele#getChemin(int)}.
+   * Seuls les calques du chemin sont reconstruits.
+   *
+   * @param cellules Indices des cellules du chemin, null pour effacer le chemin
+   */
+  public void setChemin(List<Integer> cellules) {
+    LabyrintheCompact labyrinthe = contenu.labyrinthe;
+    long[] bitmap = null;
+    if (cellules != null) {
+      bitmap = new long[(labyrinthe.getTaille() + 63) >>> 6];
+      for (int cellule : cellules) {
+        bitmap[cellule >>> 6] |= 1L << cellule;
+      }
+    }
+    contenu = new Contenu(labyrinthe, contenu.entree, contenu.sortie, bitmap,
+        cellules == null ? null : blocsTraverses(labyrinthe, cellules), contenu.murs);
+    calques.clear();
+    demandees.keySet().removeIf(cle -> (cle & CALQUE) != 0);
+    dessiner();
+  }
+
+  /**
+   * Ferme en arrière-plan un labyrinthe qui n'est plus affiché, une fois terminée la construction
+   * des tuiles qui le lisent encore.
+   *
+   * @param ancien Labyrinthe à fermer, remplacé auparavant par {@link #setLabyrinthe}
+   */
+  public void fermer(LabyrintheCompact ancien) {
+    Runnable fermeture = () -> {
+      verrou.writeLock().lock();
+      try {
+        ancien.fermer();
+      } finally {
+        verrou.writeLock().unlock();
+      }
+    };
+    try {
+      executeur.execute(fermeture);
+    } catch (RejectedExecutionException e) {
+      // Vue arrêtée : plus aucune tuile ne sera demandée, il suffit d'attendre les dernières.
+      fermeture.run();
+    }
+  }
+
+  /**
+   * Zoome pour que le labyrinthe entier soit visible.
+   */
+  public void ajuster() {
+    if (contenu == null || getWidth() <= 0 || getHeight() <= 0) {
+      return;
+    }
+    LabyrintheCompact labyrinthe = contenu.labyrinthe;
+    echelle = limiterEchelle(Math.min(getWidth() / labyrinthe.getHauteur(),
+        getHeight() / labyrinthe.getLargeur()));
+    origineColonne = 0;
+    origineLigne = 0;
+    dessiner();
+  }
+
+  /**
+   * Zoome en gardant fixe le point sous la souris.
+   *
+   * @param facteur Facteur de zoom, supérieur à 1 pour se rapprocher
+   * @param x Abscisse du point fixe dans la vue, en pixels
+   * @param y Ordonnée du point fixe dans la vue, en pixels
+   */
+  private void zoomer(double facteur, double x, double y) {
+    double colonne = origineColonne + x / echelle;
+    double ligne = origineLigne + y / echelle;
+    echelle = limiterEchelle(echelle * facteur);
+    origineColonne = colonne - x / echelle;
+    origineLigne = ligne - y / echelle;
+    dessiner();
+  }
+
+  /**
+   * Limite l'échelle aux niveaux de zoom disponibles.
+   *
+   * @param valeur Échelle souhaitée
+   * @return Échelle la plus proche autorisée
+   */
+  private static double limiterEchelle(double valeur) {
+    return Math.max(Math.scalb(1.0, NIVEAU_MIN), Math.min(Math.scalb(1.0, NIVEAU_MAX), valeur));
+  }
+
+  /**
+   * Arrête la construction des tuiles.
+   */
+  public void arreter() {
+    executeur.shutdownNow();
+  }
+
+  @Override
+  protected void layoutChildren() {
+    boolean premierAffichage = canvas.getWidth() == 0 || canvas.getHeight() == 0;
+    canvas.setWidth(getWidth());
+    canvas.setHeight(getHeight());
+    if (premierAffichage) {
+      ajuster();
+    } else {
+      dessiner();
+    }
+  }
+
+  /**
+   * Dessine les tuiles visibles, en demandant celles qui manquent. En attendant, une tuile
+   * manquante est remplacée par la partie correspondante d'une tuile plus grossière ; s'il n'y en
+   * a aucune en cache, la tuile du niveau juste au-dessus est demandée avant les tuiles
+   * manquantes, pour qu'elle les remplace au plus tôt.
+   */
+  private void dessiner() {
+    GraphicsContext gc = canvas.getGraphicsContext2D();
+    gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    if (contenu == null) {
+      return;
+    }
+    LabyrintheCompact labyrinthe = contenu.labyrinthe;
+    int niveau = (int) Math.max(NIVEAU_MIN, Math.min(NIVEAU_MAX,
+        Math.floor(Math.log(echelle) / Math.log(2) + 1e-9)));
+    double cellules = cellulesParTuile(niveau);
+    double cote = cellules * echelle;
+    int premiereColonne = (int) Math.max(0, Math.floor(origineColonne / cellules));
+    int premiereLigne = (int) Math.max(0, Math.floor(origineLigne / cellules));
+    int derniereColonne = (int) Math.min(Math.ceil(labyrinthe.getHauteur() / cellules) - 1,
+        Math.floor((origineColonne + canvas.getWidth() / echelle) / cellules));
+    int derniereLigne = (int) Math.min(Math.ceil(labyrinthe.getLargeur() / cellules) - 1,
+        Math.floor((origineLigne + canvas.getHeight() / echelle) / cellules));
+
+    Set<Long> visibles = new HashSet<>();
+    List<int[]> manquantes = new ArrayList<>();
+    for (int tuileLigne = premiereLigne; tuileLigne <= derniereLigne; tuileLigne++) {
+      for (int tuileColonne = premiereColonne; tuileColonne <= derniereColonne; tuileColonne++) {
+        double x = (tuileColonne * cellules - origineColonne) * echelle;
+        double y = (tuileLigne * cellules - origineLigne) * echelle;
+        long cle = cle(niveau, tuileColonne, tuileLigne);
+        visibles.add(cle);
+        WritableImage image = cache.get(cle);
+        if (image != null) {
+          gc.drawImage(image, x, y, cote, cote);
+        } else {
+          if (!dessinerRepli(gc, niveau, tuileColonne, tuileLigne, x, y, cote)
+              && niveau > NIVEAU_MIN) {
+            long cleParent = cle(niveau - 1, tuileColonne >> 1, tuileLigne >> 1);
+            visibles.add(cleParent);
+            demander(cleParent, niveau - 1, tuileColonne >> 1, tuileLigne >> 1);
+          }
+          manquantes.add(new int[] {tuileColonne, tuileLigne});
+        }
+        if (contenu.traverse(Integer.numberOfTrailingZeros((int) cellules), tuileLigne,
+            tuileColonne)) {
+          visibles.add(cle | CALQUE);
+          WritableImage calque = calques.get(cle | CALQUE);
+          if (calque != null) {
+            gc.drawImage(calque, x, y, cote, cote);
+          } else {
+            demander(cle | CALQUE, niveau, tuileColonne, tuileLigne);
+          }
+        }
+      }
+    }
+    for (int[] manquante : manquantes) {
+      demander(cle(niveau, manquante[0], manquante[1]), niveau, manquante[0], manquante[1]);
+    }
+    demandees.keySet().retainAll(visibles);
+  }
+
+  /**
+   * Remplace une tuile pas encore construite par la partie correspondante d'une tuile plus
+   * grossière, s'il y en a une en cache.
+   *
+   * @param gc Contexte graphique du canvas
+   * @param niveau Niveau de zoom de la tuile
+   * @param tuileColonne Colonne de la tuile
+   * @param tuileLigne Ligne de la tuile
+   * @param x Abscisse de la tuile dans la vue, en pixels
+   * @param y Ordonnée de la tuile dans la vue, en pixels
+   * @param cote Côté de la tuile dans la vue, en pixels
+   * @return true si une tuile plus grossière a été dessinée
+   */
+  private boolean dessinerRepli(GraphicsContext gc, int niveau, int tuileColonne, int tuileLigne,
+                             double x, double y, double cote) {
+    for (int repli = 1; repli <= NIVEAUX_DE_REPLI && niveau - repli >= NIVEAU_MIN; repli++) {
+      WritableImage parent = cache.get(cle(niveau - repli, tuileColonne >> repli,
+          tuileLigne >> repli));
+      if (parent != null) {
+        int morceau = TAILLE_TUILE >> repli;
+        int masque = (1 << repli) - 1;
+        gc.drawImage(parent, (tuileColonne & masque) * morceau, (tuileLigne & masque) * morceau,
+            morceau, morceau, x, y, cote, cote);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Demande la construction d'une tuile ou d'un calque en arrière-plan, à partir du contenu
+   * affiché au moment de la demande.
+   *
+   * @param cle Clé de la tuile ou du calque
+   * @param niveau Niveau de zoom de la tuile
+   * @param tuileColonne Colonne de la tuile
+   * @param tuileLigne Ligne de la tuile
+   */
+  private void demander(long cle, int niveau, int tuileColonne, int tuileLigne) {
+    Contenu demande = contenu;
+    if (demandees.putIfAbsent(cle, demande) != null) {
+      return;
+    }
+    executeur.execute(() -> {
+      WritableImage image = construire(demande, cle, niveau, tuileColonne, tuileLigne);
+      if (image == null) {
+        return;
+      }
+      Platform.runLater(() -> {
+        if (!demandees.remove(cle, demande)) {
+          return;
+        }
+        ((cle & CALQUE) != 0 ? calques : cache).put(cle, image);
+        if (!dessinPrevu) {
+          dessinPrevu = true;
+          Platform.runLater(() -> {
+            dessinPrevu = false;
+            dessiner();
+          });
+        }
+      });
+    });
+  }
+
+  /**
+   * Construit une tuile ou un calque demandé, sauf si la demande a été abandonnée entre-temps.
+   * Le labyrinthe ne peut pas être fermé pendant la construction.
+   *
+   * @param demande Contenu à dessiner
+   * @param cle Clé de la tuile ou du calque
+   * @param niveau Niveau de zoom de la tuile
+   * @param tuileColonne Colonne de la tuile
+   * @param tuileLigne Ligne de la tuile
+   * @return Image construite, null si la demande a été abandonnée
+   */
+  private WritableImage construire(Contenu demande, long cle, int niveau, int tuileColonne,
+                                   int tuileLigne) {
+    verrou.readLock().lock();
+    try {
+      if (demandees.get(cle) != demande) {
+        return null;
+      }
+      return (cle & CALQUE) != 0 ? construireCalque(demande, niveau, tuileColonne, tuileLigne)
+          : construireTuile(demande, niveau, tuileColonne, tuileLigne);
+    } finally {
+      verrou.readLock().unlock();
+    }
+  }
+
+  /**
+   * Construit l'image d'une tuile, sans le chemin.
+   *
+   * @param demande Contenu à dessiner
+   * @param niveau Niveau de zoom de la tuile
+   * @param tuileColonne Colonne de la tuile
+   * @param tuileLigne Ligne de la tuile
+   * @return Image de la tuile
+   */
+  private static WritableImage construireTuile(Contenu demande, int niveau, int tuileColonne,
+                                               int tuileLigne) {
+    LabyrintheCompact source = demande.labyrinthe;
+    int[] pixels = new int[TAILLE_TUILE * TAILLE_TUILE];
+    Arrays.fill(pixels, FOND);
+    int cellules = cellulesParTuile(niveau);
+    long colonne0 = (long) tuileColonne * cellules;
+    long ligne0 = (long) tuileLigne * cellules;
+    if (niveau >= 0) {
+      int pixelsParCellule = 1 << niveau;
+      for (int ligne = 0; ligne < cellules && ligne0 + ligne < source.getLargeur(); ligne++) {
+        for (int colonne = 0; colonne < cellules && colonne0 + colonne < source.getHauteur();
+             colonne++) {
+          int indice = source.indice((int) (ligne0 + ligne), (int) (colonne0 + colonne));
+          dessinerCellule(source, indice, demande.couleur(indice), MUR, pixels,
+              colonne * pixelsParCellule, ligne * pixelsParCellule, pixelsParCellule);
+        }
+      }
+    } else {
+      int echelon = -niveau;
+      int[] murs = echelon >= PREMIER_ECHELON_COMPTE ? demande.murs.niveau(echelon) : null;
+      int bloc = 1 << echelon;
+      for (int py = 0; py < TAILLE_TUILE && ligne0 + (long) py * bloc < source.getLargeur();
+           py++) {
+        for (int px = 0; px < TAILLE_TUILE && colonne0 + (long) px * bloc < source.getHauteur();
+             px++) {
+          pixels[py * TAILLE_TUILE + px] = resumerBloc(demande, murs, echelon,
+              (int) (ligne0 >> echelon) + py, (int) (colonne0 >> echelon) + px);
+        }
+      }
+    }
+    return image(pixels);
+  }
+
+  /**
+   * Construit le calque du chemin d'une tuile : transparent, sauf sur les cellules du chemin ou,
+   * en vue d'ensemble, sur les blocs qu'il traverse. Les murs, l'entrée et la sortie restent
+   * visibles au travers.
+   *
+   * @param demande Contenu à dessiner
+   * @param niveau Niveau de zoom de la tuile
+   * @param tuileColonne Colonne de la tuile
+   * @param tuileLigne Ligne de la tuile
+   * @return Image du calque
+   */
+  private static WritableImage construireCalque(Contenu demande, int niveau, int tuileColonne,
+                                                int tuileLigne) {
+    LabyrintheCompact source = demande.labyrinthe;
+    int[] pixels = new int[TAILLE_TUILE * TAILLE_TUILE];
+    int cellules = cellulesParTuile(niveau);
+    long colonne0 = (long) tuileColonne * cellules;
+    long ligne0 = (long) tuileLigne * cellules;
+    if (niveau >= 0) {
+      int pixelsParCellule = 1 << niveau;
+      for (int ligne = 0; ligne < cellules && ligne0 + ligne < source.getLargeur(); ligne++) {
+        for (int colonne = 0; colonne < cellules && colonne0 + colonne < source.getHauteur();
+             colonne++) {
+          int indice = source.indice((int) (ligne0 + ligne), (int) (colonne0 + colonne));
+          if (demande.estSurChemin(indice) && demande.couleur(indice) == CELLULE) {
+            dessinerCellule(source, indice, CHEMIN, TRANSPARENT, pixels,
+                colonne * pixelsParCellule, ligne * pixelsParCellule, pixelsParCellule);
+          }
+        }
+      }
+    } else {
+      int echelon = -niveau;
+      int bloc = 1 << echelon;
+      for (int py = 0; py < TAILLE_TUILE && ligne0 + (long) py * bloc < source.getLargeur();
+           py++) {
+        for (int px = 0; px < TAILLE_TUILE && colonne0 + (long) px * bloc < source.getHauteur();
+             px++) {
+          int ligneBloc = (int) (ligne0 >> echelon) + py;
+          int colonneBloc = (int) (colonne0 >> echelon) + px;
+          if (demande.traverse(echelon, ligneBloc, colonneBloc)
+              && !demande.contientExtremite(echelon, ligneBloc, colonneBloc)) {
+            pixels[py * TAILLE_TUILE + px] = CHEMIN;
+          }
+        }
+      }
+    }
+    return image(pixels);
+  }
+
+  /**
+   * Écrit les pixels d'une tuile dans une image.
+   *
+   * @param pixels Pixels ARGB, ligne par ligne
+   * @return Image de la tuile
+   */
+  private static WritableImage image(int[] pixels) {
+    WritableImage image = new WritableImage(TAILLE_TUILE, TAILLE_TUILE);
+    image.getPixelWriter().setPixels(0, 0, TAILLE_TUILE, TAILLE_TUILE,
+        PixelFormat.getIntArgbInstance(), pixels, 0, TAILLE_TUILE);
+    return image;
+  }
+
+  /**
+   * Dessine une cellule occupant un carré de plusieurs pixels. À partir de trois pixels, les murs
+   * nord et ouest sont tracés, ainsi que les murs sud et est au bord du labyrinthe ; à deux
+   * pixels, le pixel de droite et celui du bas montrent les passages vers l'est et le sud ; à un
+   * pixel, la teinte indique le nombre de ces deux murs présents.
+   *
+   * @param source Labyrinthe à dessiner
+   * @param indice Indice de la cellule
+   * @param couleur Couleur de fond de la cellule
+   * @param mur Couleur des murs, transparente pour un calque
+   * @param pixels Pixels de la tuile
+   * @param x Colonne du premier pixel de la cellule dans la tuile
+   * @param y Ligne du premier pixel de la cellule dans la tuile
+   * @param taille Nombre de pixels par cellule
+   */
+  private static void dessinerCellule(LabyrintheCompact source, int indice, int couleur, int mur,
+                                      int[] pixels, int x, int y, int taille) {
+    int ouverts = source.passages(indice);
+    if (taille == 1) {
+      int murs = Integer.bitCount(~ouverts & (LabyrintheCompact.EST | LabyrintheCompact.SUD));
+      pixels[y * TAILLE_TUILE + x] = couleur != CELLULE ? couleur : melanger(CELLULE, MUR,
+          murs / 2.0);
+      return;
+    }
+    if (taille == 2) {
+      pixels[y * TAILLE_TUILE + x] = couleur;
+      pixels[y * TAILLE_TUILE + x + 1] = (ouverts & LabyrintheCompact.EST) != 0 ? couleur : mur;
+      pixels[(y + 1) * TAILLE_TUILE + x] = (ouverts & LabyrintheCompact.SUD) != 0 ? couleur : mur;
+      pixels[(y + 1) * TAILLE_TUILE + x + 1] = mur;
+      return;
+    }
+    for (int i = 0; i < taille; i++) {
+      Arrays.fill(pixels, (y + i) * TAILLE_TUILE + x, (y + i) * TAILLE_TUILE + x + taille,
+          couleur);
+    }
+    boolean nord = (ouverts & LabyrintheCompact.NORD) == 0;
+    boolean ouest = (ouverts & LabyrintheCompact.OUEST) == 0;
+    boolean sud = (ouverts & LabyrintheCompact.SUD) == 0
+        && source.abscisse(indice) == source.getLargeur() - 1;
+    boolean est = (ouverts & LabyrintheCompact.EST) == 0
+        && source.ordonnee(indice) == source.getHauteur() - 1;
+    for (int i = 0; i < taille; i++) {
+      if (nord) {
+        pixels[y * TAILLE_TUILE + x + i] = mur;
+      }
+      if (sud) {
+        pixels[(y + taille - 1) * TAILLE_TUILE + x + i] = mur;
+      }
+      if (ouest) {
+        pixels[(y + i) * TAILLE_TUILE + x] = mur;
+      }
+      if (est) {
+        pixels[(y + i) * TAILLE_TUILE + x + taille - 1] = mur;
+      }
+    }
+  }
+
+  /**
+   * Résume un bloc de cellules en un pixel : la teinte indique la proportion de murs du bloc ;
+   * le bloc prend la couleur de l'entrée ou de la sortie s'il en contient.
+   *
+   * @param demande Contenu à dessiner
+   * @param murs Murs des blocs de cet échelon, null pour compter les murs du bloc
+   * @param k Logarithme en base 2 du côté du bloc
+   * @param ligneBloc Ligne du bloc
+   * @param colonneBloc Colonne du bloc
+   * @return Couleur du pixel
+   */
+  private static int resumerBloc(Contenu demande, int[] murs, int k, int ligneBloc,
+                                 int colonneBloc) {
+    int marque = demande.extremite(k, ligneBloc, colonneBloc);
+    if (marque != CELLULE) {
+      return marque;
+    }
+    LabyrintheCompact source = demande.labyrinthe;
+    int ligne0 = ligneBloc << k;
+    int colonne0 = colonneBloc << k;
+    int ligne1 = (int) Math.min((long) ligne0 + (1 << k), source.getLargeur());
+    int colonne1 = (int) Math.min((long) colonne0 + (1 << k), source.getHauteur());
+    long cellules = (long) (ligne1 - ligne0) * (colonne1 - colonne0);
+    long total;
+    if (murs != null) {
+      total = murs[ligneBloc * colonnesDeBlocs(source, k) + colonneBloc];
+    } else {
+      total = compterMurs(source, ligne0, colonne0, ligne1, colonne1);
+    }
+    return melanger(CELLULE, MUR, total / (2.0 * cellules));
+  }
+
+  /**
+   * Compte les murs est et sud d'un rectangle de cellules.
+   *
+   * @param source Labyrinthe à lire
+   * @param ligne0 Première ligne du rectangle
+   * @param colonne0 Première colonne du rectangle
+   * @param ligne1 Ligne suivant la dernière ligne du rectangle
+   * @param colonne1 Colonne suivant la dernière colonne du rectangle
+   * @return Nombre de murs
+   */
+  private static int compterMurs(LabyrintheCompact source, int ligne0, int colonne0, int ligne1,
+                                 int colonne1) {
+    int murs = 0;
+    for (int ligne = ligne0; ligne < ligne1; ligne++) {
+      for (int colonne = colonne0; colonne < colonne1; colonne++) {
+        int ouverts = source.passages(source.indice(ligne, colonne));
+        murs += Integer.bitCount(~ouverts & (LabyrintheCompact.EST | LabyrintheCompact.SUD));
+      }
+    }
+    return murs;
+  }
+
+  /**
+   * Calcule, pour chaque k de 1 à {@code ECHELONS}, les blocs de 2^k x 2^k cellules traversés par
+   * un chemin. Chaque échelon est déduit du précédent en regroupant ses blocs par carrés de 2 x 2,
+   * sans reparcourir le chemin.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param cellules Indices des cellules du chemin
+   * @return Blocs traversés de chaque échelon, ligne par ligne ; l'indice 0 n'est pas utilisé
+   */
+  private static BitSet[] blocsTraverses(LabyrintheCompact labyrinthe, List<Integer> cellules) {
+    BitSet[] blocs = new BitSet[ECHELONS + 1];
+    blocs[1] = new BitSet();
+    int colonnes = colonnesDeBlocs(labyrinthe, 1);
+    for (int cellule : cellules) {
+      blocs[1].set((labyrinthe.abscisse(cellule) >> 1) * colonnes
+          + (labyrinthe.ordonnee(cellule) >> 1));
+    }
+    for (int k = 2; k <= ECHELONS; k++) {
+      int colonnesFines = colonnes;
+      colonnes = colonnesDeBlocs(labyrinthe, k);
+      blocs[k] = new BitSet();
+      for (int i = blocs[k - 1].nextSetBit(0); i >= 0; i = blocs[k - 1].nextSetBit(i + 1)) {
+        blocs[k].set((i / colonnesFines >> 1) * colonnes + (i % colonnesFines >> 1));
+      }
+    }
+    return blocs;
+  }
+
+  /**
+   * Retourne le nombre de lignes de blocs de 2^k x 2^k cellules du labyrinthe.
+   *
+   * @param labyrinthe Labyrinthe découpé
+   * @param k Logarithme en base 2 du côté d'un bloc
+   * @return Nombre de lignes de blocs
+   */
+  private static int lignesDeBlocs(LabyrintheCompact labyrinthe, int k) {
+    return ((labyrinthe.getLargeur() - 1) >> k) + 1;
+  }
+
+  /**
+   * Retourne le nombre de blocs de 2^k x 2^k cellules sur une ligne du labyrinthe.
+   *
+   * @param labyrinthe Labyrinthe découpé
+   * @param k Logarithme en base 2 du côté d'un bloc
+   * @return Nombre de blocs
+   */
+  private static int colonnesDeBlocs(LabyrintheCompact labyrinthe, int k) {
+    return ((labyrinthe.getHauteur() - 1) >> k) + 1;
+  }
+
+  /**
+   * Retourne le nombre de cellules couvertes par le côté d'une tuile.
+   *
+   * @param niveau Niveau de zoom
+   * @return Nombre de cellules
+   */
+  private static int cellulesParTuile(int niveau) {
+    return niveau >= 0 ? TAILLE_TUILE >> niveau : TAILLE_TUILE << -niveau;
+  }
+
+  /**
+   * Retourne la clé d'une tuile dans le cache.
+   *
+   * @param niveau Niveau de zoom
+   * @param tuileColonne Colonne de la tuile
+   * @param tuileLigne Ligne de la tuile
+   * @return Clé de la tuile
+   */
+  private static long cle(int niveau, int tuileColonne, int tuileLigne) {
+    return (long) (niveau - NIVEAU_MIN) << 56 | (long) tuileColonne << 28 | tuileLigne;
+  }
+
+  /**
+   * Mélange deux couleurs.
+   *
+   * @param premiere Première couleur
+   * @param seconde Seconde couleur
+   * @param part Part de la seconde couleur, entre 0 et 1
+   * @return Couleur mélangée
+   */
+  private static int melanger(int premiere, int seconde, double part) {
+    int resultat = 0xff000000;
+    for (int decalage = 0; decalage < 24; decalage += 8) {
+      int a = (premiere >>> decalage) & 0xff;
+      int b = (seconde >>> decalage) & 0xff;
+      resultat |= (int) Math.round(a + (b - a) * part) << decalage;
+    }
+    return resultat;
+  }
+
+  /**
+   * Convertit une couleur JavaFX en entier ARGB.
+   *
+   * @param color Couleur à convertir
+   * @return Couleur au format ARGB
+   */
+  private static int argb(Color color) {
+    return 0xff000000 | (int) Math.round(color.getRed() * 255) << 16
+        | (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+  }
+
+  /**
+   * Contenu affiché. Il n'est jamais modifié mais remplacé, pour que chaque tuile soit construite
+   * à partir d'un état cohérent, quel que soit le thread.
+   */
+  private static final class Contenu {
+
+    /**
+     * Labyrinthe affiché.
+     */
+    private final LabyrintheCompact labyrinthe;
+
+    /**
+     * Indice de la cellule d'entrée.
+     */
+    private final int entree;
+
+    /**
+     * Indice de la cellule de sortie.
+     */
+    private final int sortie;
+
+    /**
+     * Cellules du chemin, en bitmap indexé comme le labyrinthe ; null s'il n'y a pas de chemin.
+     */
+    private final long[] chemin;
+
+    /**
+     * Pour chaque k à partir de 1, blocs de 2^k x 2^k cellules traversés par le chemin, ligne par
+     * ligne ; null s'il n'y a pas de chemin.
+     */
+    private final BitSet[] blocsChemin;
+
+    /**
+     * Murs comptés par blocs, partagés par tous les contenus du même labyrinthe.
+     */
+    private final MursParBloc murs;
+
+    Contenu(LabyrintheCompact labyrinthe, int entree, int sortie, long[] chemin,
+            BitSet[] blocsChemin, MursParBloc murs) {
+      this.labyrinthe = labyrinthe;
+      this.entree = entree;
+      this.sortie = sortie;
+      this.chemin = chemin;
+      this.blocsChemin = blocsChemin;
+      this.murs = murs;
+    }
+
+    /**
+     * Retourne la couleur de fond d'une cellule, sans le chemin.
+     *
+     * @param indice Indice de la cellule
+     * @return Couleur de la cellule
+     */
+    int couleur(int indice) {
+      if (indice == entree) {
+        return ENTREE;
+      } else if (indice == sortie) {
+        return SORTIE;
+      }
+      return CELLULE;
+    }
+
+    /**
+     * Indique si une cellule est sur le chemin.
+     *
+     * @param indice Indice de la cellule
+     * @return true si la cellule est sur le chemin
+     */
+    boolean estSurChemin(int indice) {
+      return chemin != null && (chemin[indice >>> 6] & (1L << indice)) != 0;
+    }
+
+    /**
+     * Indique si le chemin traverse un bloc.
+     *
+     * @param k Logarithme en base 2 du côté du bloc, entre 1 et {@code ECHELONS}
+     * @param ligneBloc Ligne du bloc
+     * @param colonneBloc Colonne du bloc
+     * @return true si une cellule du bloc est sur le chemin
+     */
+    boolean traverse(int k, int ligneBloc, int colonneBloc) {
+      return blocsChemin != null
+          && blocsChemin[k].get(ligneBloc * colonnesDeBlocs(labyrinthe, k) + colonneBloc);
+    }
+
+    /**
+     * Indique si un bloc contient l'entrée ou la sortie.
+     *
+     * @param k Logarithme en base 2 du côté du bloc
+     * @param ligneBloc Ligne du bloc
+     * @param colonneBloc Colonne du bloc
+     * @return true si le bloc contient l'entrée ou la sortie
+     */
+    boolean contientExtremite(int k, int ligneBloc, int colonneBloc) {
+      return extremite(k, ligneBloc, colonneBloc) != CELLULE;
+    }
+
+    /**
+     * Retourne la couleur de l'entrée ou de la sortie si un bloc en contient une.
+     *
+     * @param k Logarithme en base 2 du côté du bloc
+     * @param ligneBloc Ligne du bloc
+     * @param colonneBloc Colonne du bloc
+     * @return Couleur de l'extrémité contenue, ou celle d'une cellule s'il n'y en a pas
+     */
+    int extremite(int k, int ligneBloc, int colonneBloc) {
+      for (int extremite : new int[] {entree, sortie}) {
+        if (labyrinthe.abscisse(extremite) >> k == ligneBloc
+            && labyrinthe.ordonnee(extremite) >> k == colonneBloc) {
+          return couleur(extremite);
+        }
+      }
+      return CELLULE;
+    }
+  }
+
+  /**
+   * Pyramide du nombre de murs est et sud par blocs de 2^k x 2^k cellules, pour k de
+   * {@code PREMIER_ECHELON_COMPTE} à {@code -NIVEAU_MIN}. Elle est calculée à la première vue
+   * d'ensemble qui en a besoin, en une lecture du labyrinthe ; chaque échelon est ensuite déduit
+   * du précédent en regroupant ses blocs par carrés de 2 x 2, comme dans
+   * {@link #blocsTraverses(LabyrintheCompact, List)}.
+   */
+  private static final class MursParBloc {
+
+    /**
+     * Labyrinthe compté.
+     */
+    private final LabyrintheCompact labyrinthe;
+
+    /**
+     * Murs de chaque bloc, par échelon puis ligne par ligne ; null tant qu'ils n'ont pas été
+     * comptés.
+     */
+    private int[][] niveaux;
+
+    MursParBloc(LabyrintheCompact labyrinthe) {
+      this.labyrinthe = labyrinthe;
+    }
+
+    /**
+     * Retourne les murs des blocs d'un échelon, en comptant la pyramide s'il le faut.
+     *
+     * @param k Logarithme en base 2 du côté des blocs, entre {@code PREMIER_ECHELON_COMPTE} et
+     *     {@code -NIVEAU_MIN}
+     * @return Murs de chaque bloc, ligne par ligne
+     */
+    synchronized int[] niveau(int k) {
+      if (niveaux == null) {
+        niveaux = compter();
+      }
+      return niveaux[k];
+    }
+
+    /**
+     * Compte les murs de chaque échelon de la pyramide.
+     *
+     * @return Murs de chaque bloc, par échelon puis ligne par ligne
+     */
+    private int[][] compter() {
+      int[][] murs = new int[-NIVEAU_MIN + 1][];
+      int k = PREMIER_ECHELON_COMPTE;
+      int colonnes = colonnesDeBlocs(labyrinthe, k);
+      murs[k] = new int[lignesDeBlocs(labyrinthe, k) * colonnes];
+      for (int ligne = 0; ligne < labyrinthe.getLargeur(); ligne++) {
+        for (int colonne = 0; colonne < labyrinthe.getHauteur(); colonne++) {
+          int ouverts = labyrinthe.passages(labyrinthe.indice(ligne, colonne));
+          murs[k][(ligne >> k) * colonnes + (colonne >> k)] +=
+              Integer.bitCount(~ouverts & (LabyrintheCompact.EST | LabyrintheCompact.SUD));
+        }
+      }
+      for (k++; k <= -NIVEAU_MIN; k++) {
+        int colonnesFines = colonnes;
+        colonnes = colonnesDeBlocs(labyrinthe, k);
+        murs[k] = new int[lignesDeBlocs(labyrinthe, k) * colonnes];
+        for (int i = 0; i < murs[k - 1].length; i++) {
+          murs[k][(i / colonnesFines >> 1) * colonnes + (i % colonnesFines >> 1)] += murs[k - 1][i];
+        }
+      }
+      return murs;
+    }
+  }
+
+}
@@ -0,0 +1,149 @@
+package com.example.defilabyrinthe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Vérifie les statistiques de {@link AnalyseLabyrinthe} sur des labyrinthes construits à la main.
+ */
+class AnalyseLabyrintheTest {
+
+  /**
+   * Labyrinthe parfait de 3 x 4 cellules, l'entrée en (0, 0) et la sortie en (2, 3) :
+   * <pre>
+   *   (0,0) - (0,1) - (0,2) - (0,3)
+   *     |               |       |
+   *   (1,0)   (1,1)   (1,2)   (1,3)
+   *     |       |
+   *   (2,0) - (2,1) - (2,2) - (2,3)
+   * </pre>
+   */
+  @Test
+  void labyrintheParfait() {
+    for (Disposition disposition : Disposition.values()) {
+      AnalyseLabyrinthe analyse = analyser(labyrintheParfait(disposition));
+      assertEquals(12, analyse.getTaille());
+      assertArrayEquals(new long[] {0, 4, 6, 2, 0}, analyse.getRepartitionDegres());
+      assertEquals(4, analyse.getCulsDeSac());
+      assertEquals(2, analyse.getCarrefours());
+      assertEquals(0, analyse.getBoucles());
+      // De (1,3) à (2,3) en passant par l'entrée.
+      assertEquals(9, analyse.getDiametre());
+      assertEquals(5, analyse.getLongueurSolution());
+    }
+  }
+
+  /**
+   * Le même labyrinthe avec un passage de plus, entre (1,1) et (1,2).
+   */
+  @Test
+  void uneBoucle() {
+    for (Disposition disposition : Disposition.values()) {
+      LabyrintheCompact labyrinthe = labyrintheParfait(disposition);
+      labyrinthe.ouvrir(1, 1, 'E');
+      AnalyseLabyrinthe analyse = analyser(labyrinthe);
+      assertArrayEquals(new long[] {0, 2, 8, 2, 0}, analyse.getRepartitionDegres());
+      assertEquals(2, analyse.getCulsDeSac());
+      assertEquals(2, analyse.getCarrefours());
+      assertEquals(1, analyse.getBoucles());
+      // De (1,3) à (2,3) par la boucle.
+      assertEquals(7, analyse.getDiametre());
+      assertEquals(5, analyse.getLongueurSolution());
+    }
+  }
+
+  @Test
+  void sortieInaccessible() {
+    LabyrintheCompact labyrinthe = labyrintheParfait(Disposition.LIGNES);
+    labyrinthe.ajouterMur(labyrinthe.indice(2, 2), LabyrintheCompact.EST);
+    AnalyseLabyrinthe analyse = analyser(labyrinthe);
+    assertEquals(-1, analyse.getLongueurSolution());
+    assertEquals(1, analyse.getRepartitionDegres()[0]);
+    assertEquals(0, analyse.getDifficulte());
+  }
+
+  @Test
+  void memesDegresQueLeGraphe() {
+    for (int essai = 0; essai < 3; essai++) {
+      MazeGenerator generateur = new MazeGenerator(20, 20);
+      long[] attendue = new long[5];
+      for (int x = 0; x < 20; x++) {
+        for (int y = 0; y < 20; y++) {
+          attendue[generateur.getGraphe().getVoisins(generateur.getCell(x, y)).size()]++;
+        }
+      }
+      AnalyseLabyrinthe analyse = AnalyseLabyrinthe.analyser(generateur);
+      assertEquals(400, analyse.getTaille());
+      assertArrayEquals(attendue, analyse.getRepartitionDegres());
+      assertEquals(attendue[1], analyse.getCulsDeSac());
+      assertEquals(attendue[3] + attendue[4], analyse.getCarrefours());
+      double solution = generateur.getGraphe().aaEtoile(generateur.getEntrance(),
+          generateur.getExit());
+      assertEquals(solution, analyse.getLongueurSolution());
+    }
+  }
+
+  @Test
+  void lotDeGraines() {
+    String attendus = LongStream.range(0, 8).mapToObj(graine -> {
+      LabyrintheCompact labyrinthe = MazeGenerator.generateCompact(30, 20, Disposition.LIGNES,
+          new Random(graine));
+      return analyserStatistiques(labyrinthe, 30, 20);
+    }).collect(Collectors.joining("\n"));
+    String obtenus = AnalyseLabyrinthe.analyser(30, 20, LongStream.range(0, 8).parallel())
+        .map(AnalyseLabyrinthe::toString).collect(Collectors.joining("\n"));
+    assertEquals(attendus, obtenus);
+  }
+
+  /**
+   * Construit le labyrinthe parfait de {@link #labyrintheParfait()}.
+   *
+   * @param disposition Ordre de rangement des cellules
+   * @return Labyrinthe parfait de 3 x 4 cellules
+   */
+  private static LabyrintheCompact labyrintheParfait(Disposition disposition) {
+    LabyrintheCompact labyrinthe = new LabyrintheCompact(3, 4, disposition);
+    labyrinthe.ouvrir(0, 0, 'E');
+    labyrinthe.ouvrir(0, 1, 'E');
+    labyrinthe.ouvrir(0, 2, 'E');
+    labyrinthe.ouvrir(0, 0, 'S');
+    labyrinthe.ouvrir(1, 0, 'S');
+    labyrinthe.ouvrir(0, 2, 'S');
+    labyrinthe.ouvrir(0, 3, 'S');
+    labyrinthe.ouvrir(1, 1, 'S');
+    labyrinthe.ouvrir(2, 0, 'E');
+    labyrinthe.ouvrir(2, 1, 'E');
+    labyrinthe.ouvrir(2, 2, 'E');
+    return labyrinthe;
+  }
+
+  /**
+   * Analyse un labyrinthe de 3 x 4 cellules entre (0, 0) et (2, 3).
+   *
+   * @param labyrinthe Labyrinthe à analyser
+   * @return Statistiques du labyrinthe
+   */
+  private static AnalyseLabyrinthe analyser(LabyrintheCompact labyrinthe) {
+    return AnalyseLabyrinthe.analyser(labyrinthe, labyrinthe.indice(0, 0),
+        labyrinthe.indice(2, 3));
+  }
+
+  /**
+   * Analyse un labyrinthe entre deux coins opposés.
+   *
+   * @param labyrinthe Labyrinthe à analyser
+   * @param largeur Largeur du labyrinthe
+   * @param hauteur Hauteur du labyrinthe
+   * @return Statistiques sous forme de texte
+   */
+  private static String analyserStatistiques(LabyrintheCompact labyrinthe, int largeur,
+                                             int hauteur) {
+    return AnalyseLabyrinthe.analyser(labyrinthe, labyrinthe.indice(0, 0),
+        labyrinthe.indice(largeur - 1, hauteur - 1)).toString();
+  }
+}
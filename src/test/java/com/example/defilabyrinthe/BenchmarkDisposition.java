@@ -0,0 +1,112 @@
+package com.example.defilabyrinthe;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Compare les dispositions des cellules sur un même labyrinthe : génération, parcours en largeur
+ * parallèle, analyse et lot de requêtes. Outil de développement, lancé à la main avec le
+ * classpath des tests.
+ *
+ * <p>Chaque disposition est mesurée dans sa propre JVM : mesurées à la suite dans la même JVM,
+ * les dernières le seraient sur des appels à {@link Disposition} déjà vus avec plusieurs
+ * dispositions, que le compilateur JIT n'optimise plus aussi bien.
+ */
+public class BenchmarkDisposition {
+
+  /**
+   * Nombre de répétitions mesurées pour chaque disposition.
+   */
+  private static final int REPETITIONS = 3;
+
+  /**
+   * Nombre de requêtes du lot.
+   */
+  private static final int REQUETES = 100;
+
+  /**
+   * Méthode principale.
+   *
+   * @param args Côté du labyrinthe (2048 par défaut), graine (42 par défaut) et disposition
+   *     mesurée (toutes par défaut, chacune dans une nouvelle JVM)
+   * @throws IOException si une JVM ne peut pas être lancée
+   * @throws InterruptedException si l'attente d'une JVM est interrompue
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int cote = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+    long graine = args.length > 1 ? Long.parseLong(args[1]) : 42;
+    if (args.length > 2) {
+      mesurer(cote, graine, Disposition.valueOf(args[2]));
+      return;
+    }
+    System.out.println("Labyrinthe de " + cote + "x" + cote + " cellules");
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator
+        + "java";
+    for (Disposition disposition : Disposition.values()) {
+      Process processus = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+          BenchmarkDisposition.class.getName(), Integer.toString(cote), Long.toString(graine),
+          disposition.name()).inheritIO().start();
+      if (processus.waitFor() != 0) {
+        System.out.println(disposition + " : échec de la mesure");
+      }
+    }
+  }
+
+  /**
+   * Mesure une disposition.
+   *
+   * @param cote Côté du labyrinthe
+   * @param graine Graine du labyrinthe et des requêtes
+   * @param disposition Disposition mesurée
+   */
+  private static void mesurer(int cote, long graine, Disposition disposition) {
+    Random ran = new Random(graine);
+    int[][] paires = new int[REQUETES][];
+    for (int i = 0; i < REQUETES; i++) {
+      paires[i] = new int[] {ran.nextInt(cote), ran.nextInt(cote), ran.nextInt(cote),
+          ran.nextInt(cote)};
+    }
+
+    long debut = System.nanoTime();
+    LabyrintheCompact labyrinthe = MazeGenerator.generateCompact(cote, cote, disposition,
+        new Random(graine));
+    double generation = millisecondes(debut);
+
+    BfsParallele bfs = new BfsParallele(labyrinthe);
+    RequetesChemins requetes = new RequetesChemins(labyrinthe);
+    int depart = labyrinthe.indice(0, 0);
+    int arrivee = labyrinthe.indice(cote - 1, cote - 1);
+    double parcours = Double.POSITIVE_INFINITY;
+    double analyse = Double.POSITIVE_INFINITY;
+    double lot = Double.POSITIVE_INFINITY;
+    long controle = 0;
+    for (int i = 0; i < REPETITIONS; i++) {
+      debut = System.nanoTime();
+      controle += bfs.parcourir(depart)[arrivee];
+      parcours = Math.min(parcours, millisecondes(debut));
+
+      debut = System.nanoTime();
+      controle += AnalyseLabyrinthe.analyser(labyrinthe, depart, arrivee).getDiametre();
+      analyse = Math.min(analyse, millisecondes(debut));
+
+      debut = System.nanoTime();
+      controle += requetes.distances(paires)[0];
+      lot = Math.min(lot, millisecondes(debut));
+    }
+    System.out.printf("%-8s génération %8.1f ms, parcours %8.1f ms, analyse %8.1f ms, "
+        + "requêtes %8.1f ms (contrôle %d)%n", disposition, generation, parcours, analyse, lot,
+        controle / REPETITIONS);
+  }
+
+  /**
+   * Retourne le temps écoulé depuis un instant.
+   *
+   * @param debut Instant de départ, en nanosecondes
+   * @return Temps écoulé en millisecondes
+   */
+  private static double millisecondes(long debut) {
+    return (System.nanoTime() - debut) / 1e6;
+  }
+
+}
@@ -0,0 +1,208 @@
+package com.example.defilabyrinthe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare {@link BfsParallele} à {@link Graphe#aaEtoile(Cell, Cell)} et à un parcours en largeur
+ * séquentiel.
+ */
+class BfsParalleleTest {
+
+  /**
+   * Nombres de threads des pools essayés.
+   */
+  private static final int[] PARALLELISMES = {1, 4, 16};
+
+  @Test
+  void memesDistancesQueAaEtoile() {
+    Random ran = new Random(1);
+    for (int essai = 0; essai < 3; essai++) {
+      MazeGenerator generateur = new MazeGenerator(15, 15);
+      for (Disposition disposition : Disposition.values()) {
+        LabyrintheCompact labyrinthe = generateur.compacter(disposition);
+        for (int requete = 0; requete < 10; requete++) {
+          int x1 = ran.nextInt(15);
+          int y1 = ran.nextInt(15);
+          int x2 = ran.nextInt(15);
+          int y2 = ran.nextInt(15);
+          BfsParallele bfs = new BfsParallele(labyrinthe);
+          bfs.parcourir(labyrinthe.indice(x1, y1));
+          int arrivee = labyrinthe.indice(x2, y2);
+          double attendue = generateur.getGraphe().aaEtoile(generateur.getCell(x1, y1),
+              generateur.getCell(x2, y2));
+          assertEquals(attendue, bfs.distance(arrivee));
+          verifierChemin(labyrinthe, bfs.getChemin(arrivee), (int) attendue);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sur une petite grille sans murs, la frontière dépasse {@code taille / BETA} : ces formes
+   * passent par l'exploration ascendante puis reviennent à l'exploration descendante.
+   */
+  @Test
+  void grillesOuvertesCommeUnParcoursSequentiel() {
+    int[][] formes = {{16, 16}, {32, 32}, {10, 50}};
+    for (int[] forme : formes) {
+      for (Disposition disposition : Disposition.values()) {
+        LabyrintheCompact labyrinthe = grilleOuverte(forme[0], forme[1], disposition);
+        int[] departs = {labyrinthe.indice(forme[0] / 2, forme[1] / 2), labyrinthe.indice(0, 0)};
+        for (int depart : departs) {
+          int[] attendues = parcoursSequentiel(labyrinthe, depart);
+          for (int parallelisme : PARALLELISMES) {
+            ForkJoinPool pool = new ForkJoinPool(parallelisme);
+            try {
+              BfsParallele bfs = new BfsParallele(labyrinthe, pool);
+              assertArrayEquals(attendues, bfs.parcourir(depart));
+              verifierPredecessors(labyrinthe, bfs);
+            } finally {
+              pool.shutdown();
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void labyrintheAvecBouclesEtCellulesInaccessibles() {
+    Random ran = new Random(2);
+    LabyrintheCompact labyrinthe =
+        MazeGenerator.generateCompact(120, 90, Disposition.MORTON, ran);
+    for (int i = 0; i < 2000; i++) {
+      labyrinthe.ouvrir(1 + ran.nextInt(118), 1 + ran.nextInt(88), "NESW".charAt(ran.nextInt(4)));
+    }
+    int isolee = labyrinthe.indice(60, 45);
+    for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+      labyrinthe.ajouterMur(isolee, bit);
+    }
+    int depart = labyrinthe.indice(0, 0);
+    int[] attendues = parcoursSequentiel(labyrinthe, depart);
+    for (int parallelisme : PARALLELISMES) {
+      ForkJoinPool pool = new ForkJoinPool(parallelisme);
+      try {
+        BfsParallele bfs = new BfsParallele(labyrinthe, pool);
+        assertArrayEquals(attendues, bfs.parcourir(depart));
+        assertEquals(Double.POSITIVE_INFINITY, bfs.distance(isolee));
+        assertTrue(bfs.getChemin(isolee).isEmpty());
+        verifierPredecessors(labyrinthe, bfs);
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Construit une grille dont tous les murs intérieurs sont ouverts.
+   *
+   * @param largeur Largeur de la grille
+   * @param hauteur Hauteur de la grille
+   * @param disposition Ordre de rangement des cellules
+   * @return Grille ouverte
+   */
+  private static LabyrintheCompact grilleOuverte(int largeur, int hauteur,
+                                                 Disposition disposition) {
+    LabyrintheCompact labyrinthe = new LabyrintheCompact(largeur, hauteur, disposition);
+    for (int x = 0; x < largeur; x++) {
+      for (int y = 0; y < hauteur; y++) {
+        labyrinthe.ouvrir(x, y, 'S');
+        labyrinthe.ouvrir(x, y, 'E');
+      }
+    }
+    return labyrinthe;
+  }
+
+  /**
+   * Parcours en largeur séquentiel servant de référence.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param depart Indice de la cellule de départ
+   * @return Distance de chaque cellule au départ, -1 si elle est inaccessible
+   */
+  private static int[] parcoursSequentiel(LabyrintheCompact labyrinthe, int depart) {
+    int[] distances = new int[labyrinthe.getTaille()];
+    Arrays.fill(distances, -1);
+    int[] file = new int[labyrinthe.getTaille()];
+    distances[depart] = 0;
+    file[0] = depart;
+    int tete = 0;
+    int queue = 1;
+    while (tete < queue) {
+      int noeud = file[tete++];
+      int ouverts = labyrinthe.passages(noeud);
+      for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        if ((ouverts & bit) != 0) {
+          int voisin = labyrinthe.voisin(noeud, bit);
+          if (distances[voisin] < 0) {
+            distances[voisin] = distances[noeud] + 1;
+            file[queue++] = voisin;
+          }
+        }
+      }
+    }
+    return distances;
+  }
+
+  /**
+   * Vérifie que le prédécesseur de chaque cellule atteinte est un voisin relié, un niveau plus
+   * près du départ.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param bfs Parcours à vérifier
+   */
+  private static void verifierPredecessors(LabyrintheCompact labyrinthe, BfsParallele bfs) {
+    int[] distances = bfs.getDistances();
+    int[] predecessors = bfs.getPredecessors();
+    for (int cellule = 0; cellule < distances.length; cellule++) {
+      if (distances[cellule] <= 0) {
+        assertEquals(-1, predecessors[cellule]);
+        continue;
+      }
+      int predecessor = predecessors[cellule];
+      assertEquals(distances[cellule] - 1, distances[predecessor]);
+      assertTrue(relies(labyrinthe, cellule, predecessor));
+    }
+  }
+
+  /**
+   * Vérifie qu'un chemin va de l'arrivée au départ par des cellules reliées.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param chemin Chemin à vérifier
+   * @param longueur Longueur attendue, en passages
+   */
+  private static void verifierChemin(LabyrintheCompact labyrinthe, ArrayList<Integer> chemin,
+                                     int longueur) {
+    assertEquals(longueur + 1, chemin.size());
+    for (int i = 1; i < chemin.size(); i++) {
+      assertTrue(relies(labyrinthe, chemin.get(i - 1), chemin.get(i)));
+    }
+  }
+
+  /**
+   * Indique si deux cellules sont voisines et reliées par un passage.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param a Indice de la première cellule
+   * @param b Indice de la seconde cellule
+   * @return true si un passage relie les deux cellules
+   */
+  private static boolean relies(LabyrintheCompact labyrinthe, int a, int b) {
+    int ouverts = labyrinthe.passages(a);
+    for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+      if ((ouverts & bit) != 0 && labyrinthe.voisin(a, bit) == b) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
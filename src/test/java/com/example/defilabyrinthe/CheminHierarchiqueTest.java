@@ -0,0 +1,149 @@
+package com.example.defilabyrinthe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare les distances et les chemins de {@link CheminHierarchique} à ceux d'un parcours en
+ * largeur.
+ */
+class CheminHierarchiqueTest {
+
+  /**
+   * Nombre de requêtes par labyrinthe.
+   */
+  private static final int REQUETES = 200;
+
+  @Test
+  void labyrinthePrefaitAvecBoucles() {
+    Random ran = new Random(1);
+    LabyrintheCompact labyrinthe = labyrinthe(150, 130, Disposition.LIGNES, ran);
+    verifier(labyrinthe, new CheminHierarchique(labyrinthe, 8, 4), ran);
+  }
+
+  @Test
+  void dispositionsEtBlocsIncomplets() {
+    Random ran = new Random(2);
+    for (Disposition disposition : Disposition.values()) {
+      LabyrintheCompact labyrinthe = labyrinthe(97, 61, disposition, ran);
+      verifier(labyrinthe, new CheminHierarchique(labyrinthe, 7, 3), ran);
+    }
+  }
+
+  @Test
+  void unSeulBloc() {
+    Random ran = new Random(3);
+    LabyrintheCompact labyrinthe = labyrinthe(40, 40, Disposition.LIGNES, ran);
+    verifier(labyrinthe, new CheminHierarchique(labyrinthe, 16), ran);
+  }
+
+  @Test
+  void apresModificationDesMurs() {
+    Random ran = new Random(4);
+    LabyrintheCompact labyrinthe = labyrinthe(120, 120, Disposition.MORTON, ran);
+    CheminHierarchique chemins = new CheminHierarchique(labyrinthe, 8, 4);
+    verifier(labyrinthe, chemins, ran);
+    char[] directions = {'N', 'E', 'S', 'W'};
+    for (int tour = 0; tour < 5; tour++) {
+      for (int i = 0; i < 300; i++) {
+        int x = 1 + ran.nextInt(labyrinthe.getLargeur() - 2);
+        int y = 1 + ran.nextInt(labyrinthe.getHauteur() - 2);
+        chemins.modifierMur(x, y, directions[ran.nextInt(4)], ran.nextBoolean());
+      }
+      verifier(labyrinthe, chemins, ran);
+    }
+  }
+
+  @Test
+  void arriveeInaccessible() {
+    LabyrintheCompact labyrinthe = labyrinthe(64, 64, Disposition.LIGNES, new Random(5));
+    CheminHierarchique chemins = new CheminHierarchique(labyrinthe, 8, 2);
+    int coin = labyrinthe.indice(0, 0);
+    chemins.modifierMur(0, 0, 'S', false);
+    chemins.modifierMur(0, 0, 'E', false);
+    int arrivee = labyrinthe.indice(63, 63);
+    assertEquals(-1, chemins.distance(coin, arrivee));
+    assertNull(chemins.chemin(coin, arrivee));
+    assertEquals(0, chemins.distance(coin, coin));
+  }
+
+  /**
+   * Génère un labyrinthe parfait puis ouvre des murs au hasard pour créer des boucles, donc
+   * plusieurs plus courts chemins.
+   *
+   * @param largeur Largeur du labyrinthe
+   * @param hauteur Hauteur du labyrinthe
+   * @param disposition Ordre de rangement des cellules
+   * @param ran Générateur de nombres aléatoires
+   * @return Labyrinthe
+   */
+  private static LabyrintheCompact labyrinthe(int largeur, int hauteur, Disposition disposition,
+                                              Random ran) {
+    LabyrintheCompact labyrinthe =
+        MazeGenerator.generateCompact(largeur, hauteur, disposition, ran);
+    for (int i = 0; i < largeur * hauteur / 10; i++) {
+      int x = 1 + ran.nextInt(largeur - 2);
+      int y = 1 + ran.nextInt(hauteur - 2);
+      labyrinthe.ouvrir(x, y, "NESW".charAt(ran.nextInt(4)));
+    }
+    return labyrinthe;
+  }
+
+  /**
+   * Vérifie des requêtes au hasard : même distance qu'un parcours en largeur, et chemin formé de
+   * cellules voisines reliées par un passage, de l'arrivée au départ.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param chemins Recherche hiérarchique à vérifier
+   * @param ran Générateur de nombres aléatoires
+   */
+  private static void verifier(LabyrintheCompact labyrinthe, CheminHierarchique chemins,
+                               Random ran) {
+    for (int i = 0; i < REQUETES; i++) {
+      int depart = labyrinthe.indice(ran.nextInt(labyrinthe.getLargeur()),
+          ran.nextInt(labyrinthe.getHauteur()));
+      int arrivee = labyrinthe.indice(ran.nextInt(labyrinthe.getLargeur()),
+          ran.nextInt(labyrinthe.getHauteur()));
+      BfsParallele bfs = new BfsParallele(labyrinthe);
+      int attendue = bfs.parcourir(depart)[arrivee];
+      assertEquals(attendue, chemins.distance(depart, arrivee));
+
+      int[] chemin = chemins.chemin(depart, arrivee);
+      if (attendue < 0) {
+        assertNull(chemin);
+        continue;
+      }
+      assertEquals(attendue + 1, chemin.length);
+      assertEquals(arrivee, chemin[0]);
+      assertEquals(depart, chemin[chemin.length - 1]);
+      for (int j = 1; j < chemin.length; j++) {
+        assertNotEquals(chemin[j - 1], chemin[j]);
+        assertTrue(relies(labyrinthe, chemin[j - 1], chemin[j]),
+            "cellules " + chemin[j - 1] + " et " + chemin[j] + " non reliées");
+      }
+    }
+  }
+
+  /**
+   * Indique si deux cellules sont voisines et reliées par un passage.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param a Indice de la première cellule
+   * @param b Indice de la seconde cellule
+   * @return true si un passage relie les deux cellules
+   */
+  private static boolean relies(LabyrintheCompact labyrinthe, int a, int b) {
+    int ouverts = labyrinthe.passages(a);
+    for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+      if ((ouverts & bit) != 0 && labyrinthe.voisin(a, bit) == b) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,128 @@
+package com.example.defilabyrinthe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Vérifie les conversions entre indices et coordonnées de chaque {@link Disposition}, et le calcul
+ * des voisines propre à chacune.
+ */
+class DispositionTest {
+
+  /**
+   * Formes essayées : cellule seule, bandes étroites dans les deux sens, dimensions qui ne sont
+   * pas des multiples du côté des blocs, et bloc carré complet.
+   */
+  private static final int[][] FORMES = {
+      {1, 1}, {1, 7}, {7, 1}, {3, 1025}, {1025, 3}, {37, 53}, {300, 257}, {1024, 1024},
+      {20000, 100}};
+
+  /**
+   * Directions dans l'ordre des bits.
+   */
+  private static final int[] DIRECTIONS = {
+      LabyrintheCompact.NORD, LabyrintheCompact.EST, LabyrintheCompact.SUD,
+      LabyrintheCompact.OUEST};
+
+  @Test
+  void allerRetourEntreIndiceEtCoordonnees() {
+    for (Disposition disposition : Disposition.values()) {
+      for (int[] forme : FORMES) {
+        int largeur = forme[0];
+        int hauteur = forme[1];
+        int cote = disposition.cote(largeur, hauteur);
+        int taille = disposition.taille(largeur, hauteur);
+        long cellules = (long) largeur * hauteur;
+        assertTrue(taille >= cellules && taille <= cellules + cellules / 8,
+            disposition + " " + largeur + "x" + hauteur + " : " + taille + " cases");
+        BitSet utilises = new BitSet(taille);
+        for (int x = 0; x < largeur; x++) {
+          for (int y = 0; y < hauteur; y++) {
+            int indice = disposition.indice(x, y, hauteur, cote);
+            assertTrue(indice >= 0 && indice < taille);
+            assertFalse(utilises.get(indice), disposition + " : indice " + indice + " répété");
+            utilises.set(indice);
+            assertEquals(x, disposition.abscisse(indice, hauteur, cote));
+            assertEquals(y, disposition.ordonnee(indice, hauteur, cote));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void voisinesCommeLeCalculParCoordonnees() {
+    for (Disposition disposition : Disposition.values()) {
+      for (int[] forme : FORMES) {
+        int largeur = forme[0];
+        int hauteur = forme[1];
+        int cote = disposition.cote(largeur, hauteur);
+        for (int x = 0; x < largeur; x++) {
+          for (int y = 0; y < hauteur; y++) {
+            int indice = disposition.indice(x, y, hauteur, cote);
+            for (int bit : DIRECTIONS) {
+              int attendue =
+                  disposition.voisinParCoordonnees(indice, bit, largeur, hauteur, cote);
+              int obtenue = disposition.voisin(indice, bit, largeur, hauteur, cote);
+              if (attendue != obtenue) {
+                assertEquals(attendue, obtenue, disposition + " " + largeur + "x" + hauteur
+                    + " : voisine " + bit + " de (" + x + ", " + y + ")");
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void voisinesAuxBordsDuLabyrinthe() {
+    for (Disposition disposition : Disposition.values()) {
+      LabyrintheCompact labyrinthe = new LabyrintheCompact(5, 9, disposition);
+      assertEquals(-1, labyrinthe.voisin(labyrinthe.indice(0, 4), LabyrintheCompact.NORD));
+      assertEquals(-1, labyrinthe.voisin(labyrinthe.indice(4, 4), LabyrintheCompact.SUD));
+      assertEquals(-1, labyrinthe.voisin(labyrinthe.indice(2, 0), LabyrintheCompact.OUEST));
+      assertEquals(-1, labyrinthe.voisin(labyrinthe.indice(2, 8), LabyrintheCompact.EST));
+      assertEquals(labyrinthe.indice(1, 4),
+          labyrinthe.voisin(labyrinthe.indice(2, 4), LabyrintheCompact.NORD));
+      assertEquals(labyrinthe.indice(2, 5),
+          labyrinthe.voisin(labyrinthe.indice(2, 4), LabyrintheCompact.EST));
+    }
+  }
+
+  /**
+   * L'orientation de la courbe de Hilbert est fixée : un labyrinthe déjà rangé dans un fichier
+   * doit être relu à l'identique.
+   */
+  @Test
+  void orientationDeLaCourbeDeHilbert() {
+    int[][] attendus = {{0, 3, 4, 5}, {1, 2, 7, 6}, {14, 13, 8, 9}, {15, 12, 11, 10}};
+    for (int x = 0; x < 4; x++) {
+      int[] ligne = new int[4];
+      for (int y = 0; y < 4; y++) {
+        ligne[y] = Disposition.HILBERT.indiceLocal(x, y, 4);
+      }
+      assertArrayEquals(attendus[x], ligne);
+    }
+  }
+
+  @Test
+  void positionsConsecutivesVoisinesSurLaCourbeDeHilbert() {
+    for (int cote = 1; cote <= 1024; cote <<= 1) {
+      int x = Disposition.HILBERT.abscisseLocale(0, cote);
+      int y = Disposition.HILBERT.ordonneeLocale(0, cote);
+      for (int local = 1; local < cote * cote; local++) {
+        int nx = Disposition.HILBERT.abscisseLocale(local, cote);
+        int ny = Disposition.HILBERT.ordonneeLocale(local, cote);
+        assertEquals(1, Math.abs(nx - x) + Math.abs(ny - y));
+        x = nx;
+        y = ny;
+      }
+    }
+  }
+}
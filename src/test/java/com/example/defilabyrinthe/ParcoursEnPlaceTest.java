@@ -0,0 +1,142 @@
+package com.example.defilabyrinthe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compare {@link ParcoursEnPlace} à {@link BfsParallele}, sur le tas et dans un
+ * {@link StockageFichier} dont le cache est bien plus petit que le labyrinthe.
+ */
+class ParcoursEnPlaceTest {
+
+  @Test
+  void memesLongueursQueLeParcoursParallele() {
+    Random ran = new Random(3);
+    for (Disposition disposition : Disposition.values()) {
+      LabyrintheCompact labyrinthe = MazeGenerator.generateCompact(70, 45, disposition, ran);
+      int[] avant = etats(labyrinthe);
+      ParcoursEnPlace parcours = new ParcoursEnPlace(labyrinthe);
+      for (int requete = 0; requete < 20; requete++) {
+        int depart = labyrinthe.indice(ran.nextInt(70), ran.nextInt(45));
+        int arrivee = labyrinthe.indice(ran.nextInt(70), ran.nextInt(45));
+        BfsParallele bfs = new BfsParallele(labyrinthe);
+        bfs.parcourir(depart);
+        ArrayList<Integer> chemin = parcours.getChemin(depart, arrivee);
+        assertEquals(bfs.distance(arrivee), chemin.size() - 1);
+        verifierChemin(labyrinthe, chemin, depart, arrivee);
+        assertArrayEquals(avant, etats(labyrinthe));
+      }
+    }
+  }
+
+  @Test
+  void arriveeInaccessibleOuConfondueAvecLeDepart() {
+    LabyrintheCompact labyrinthe =
+        MazeGenerator.generateCompact(20, 20, Disposition.LIGNES, new Random(4));
+    int isolee = labyrinthe.indice(10, 10);
+    for (int bit = LabyrintheCompact.NORD; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+      labyrinthe.ajouterMur(isolee, bit);
+    }
+    int[] avant = etats(labyrinthe);
+    ParcoursEnPlace parcours = new ParcoursEnPlace(labyrinthe);
+    assertTrue(parcours.getChemin(labyrinthe.indice(0, 0), isolee).isEmpty());
+    assertTrue(parcours.getChemin(isolee, labyrinthe.indice(0, 0)).isEmpty());
+    assertEquals(List.of(isolee), parcours.getChemin(isolee, isolee));
+    assertArrayEquals(avant, etats(labyrinthe));
+  }
+
+  /**
+   * Avec des tuiles de 64 cellules et trois tuiles en mémoire, la génération et le parcours
+   * évincent et rechargent sans cesse des tuiles dont les tampons sont réutilisés.
+   */
+  @Test
+  void labyrintheDansUnFichier(@TempDir Path dossier) throws IOException {
+    for (Disposition disposition : Disposition.values()) {
+      Path chemin = dossier.resolve(disposition + ".lab");
+      LabyrintheCompact attendu =
+          MazeGenerator.generateCompact(50, 37, disposition, new Random(5));
+      LabyrintheCompact fichier = MazeGenerator.generateCompact(50, 37, disposition,
+          n -> stockage(chemin, n), new Random(5));
+      int depart = attendu.indice(0, 0);
+      int arrivee = attendu.indice(49, 36);
+      ArrayList<Integer> solution = new ParcoursEnPlace(fichier).getChemin(depart, arrivee);
+      assertEquals(new ParcoursEnPlace(attendu).getChemin(depart, arrivee).size(),
+          solution.size());
+      verifierChemin(fichier, solution, depart, arrivee);
+      assertArrayEquals(etats(attendu), etats(fichier));
+      fichier.fermer();
+
+      LabyrintheCompact relu = new LabyrintheCompact(50, 37, disposition, n -> {
+        try {
+          return StockageFichier.ouvrir(chemin, n, 64, 3);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      assertArrayEquals(etats(attendu), etats(relu));
+      relu.fermer();
+    }
+  }
+
+  /**
+   * Crée un stockage de petites tuiles dans un fichier.
+   *
+   * @param chemin Chemin du fichier
+   * @param taille Nombre de cellules
+   * @return Stockage gardant trois tuiles de 64 cellules en mémoire
+   */
+  private static StockagePassages stockage(Path chemin, int taille) {
+    try {
+      return new StockageFichier(chemin, taille, 64, 3);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Retourne l'octet complet de chaque case du labyrinthe.
+   *
+   * @param labyrinthe Labyrinthe à lire
+   * @return Octets des cases, bits de travail compris
+   */
+  private static int[] etats(LabyrintheCompact labyrinthe) {
+    int[] etats = new int[labyrinthe.getTaille()];
+    for (int i = 0; i < etats.length; i++) {
+      etats[i] = labyrinthe.etat(i);
+    }
+    return etats;
+  }
+
+  /**
+   * Vérifie qu'un chemin va de l'arrivée au départ par des cellules reliées.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param chemin Chemin à vérifier
+   * @param depart Indice de la cellule de départ
+   * @param arrivee Indice de la cellule d'arrivée
+   */
+  private static void verifierChemin(LabyrintheCompact labyrinthe, List<Integer> chemin,
+                                     int depart, int arrivee) {
+    assertEquals(arrivee, chemin.get(0));
+    assertEquals(depart, chemin.get(chemin.size() - 1));
+    for (int i = 1; i < chemin.size(); i++) {
+      int a = chemin.get(i - 1);
+      int b = chemin.get(i);
+      boolean relies = false;
+      for (int bit = LabyrintheCompact.NORD; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        relies |= (labyrinthe.passages(a) & bit) != 0 && labyrinthe.voisin(a, bit) == b;
+      }
+      assertTrue(relies);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.defilabyrinthe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare les réponses de {@link RequetesChemins} à celles d'un parcours en largeur par requête.
+ */
+class RequetesCheminsTest {
+
+  @Test
+  void memesReponsesQuUnParcoursParRequete() {
+    Random ran = new Random(1);
+    LabyrintheCompact labyrinthe = MazeGenerator.generateCompact(80, 60, Disposition.LIGNES, ran);
+    for (int i = 0; i < 500; i++) {
+      labyrinthe.ouvrir(1 + ran.nextInt(78), 1 + ran.nextInt(58), "NESW".charAt(ran.nextInt(4)));
+    }
+    // Quelques départs seulement, pour former des groupes de plusieurs requêtes, avec des
+    // arrivées répétées et des arrivées confondues avec le départ.
+    int[][] departs = new int[6][];
+    for (int i = 0; i < departs.length; i++) {
+      departs[i] = new int[] {ran.nextInt(80), ran.nextInt(60)};
+    }
+    int[][] paires = new int[300][];
+    for (int i = 0; i < paires.length; i++) {
+      int[] depart = departs[ran.nextInt(departs.length)];
+      paires[i] = i % 10 == 0 ? new int[] {depart[0], depart[1], depart[0], depart[1]}
+          : new int[] {depart[0], depart[1], ran.nextInt(80), ran.nextInt(60)};
+    }
+    paires[1] = paires[2].clone();
+
+    for (int parallelisme : new int[] {1, 4}) {
+      ForkJoinPool pool = new ForkJoinPool(parallelisme);
+      try {
+        RequetesChemins requetes = new RequetesChemins(labyrinthe, pool);
+        int[] distances = requetes.distances(paires);
+        int[][] chemins = requetes.chemins(paires);
+        for (int i = 0; i < paires.length; i++) {
+          BfsParallele bfs = new BfsParallele(labyrinthe);
+          int[] attendues = bfs.parcourir(labyrinthe.indice(paires[i][0], paires[i][1]));
+          int arrivee = labyrinthe.indice(paires[i][2], paires[i][3]);
+          assertEquals(attendues[arrivee], distances[i]);
+          verifierChemin(labyrinthe, chemins[i], arrivee, bfs.getChemin(arrivee));
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  @Test
+  void arriveeInaccessible() {
+    LabyrintheCompact labyrinthe =
+        MazeGenerator.generateCompact(10, 10, Disposition.MORTON, new Random(2));
+    int coin = labyrinthe.indice(9, 9);
+    for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+      labyrinthe.ajouterMur(coin, bit);
+    }
+    int[][] paires = {{0, 0, 9, 9}, {0, 0, 0, 0}};
+    RequetesChemins requetes = new RequetesChemins(labyrinthe);
+    assertArrayEquals(new int[] {-1, 0}, requetes.distances(paires));
+    int[][] chemins = requetes.chemins(paires);
+    assertNull(chemins[0]);
+    assertArrayEquals(new int[] {labyrinthe.indice(0, 0)}, chemins[1]);
+  }
+
+  @Test
+  void aucuneRequete() {
+    RequetesChemins requetes = new RequetesChemins(new LabyrintheCompact(4, 4));
+    assertEquals(0, requetes.distances(new int[0][]).length);
+    assertEquals(0, requetes.chemins(new int[0][]).length);
+  }
+
+  @Test
+  void celluleHorsDuLabyrinthe() {
+    RequetesChemins requetes =
+        new RequetesChemins(MazeGenerator.generateCompact(5, 7, Disposition.LIGNES,
+            new Random(3)));
+    int[][] horsLimites = {{-1, 0}, {5, 0}, {0, -1}, {0, 7}};
+    for (int[] cellule : horsLimites) {
+      int[][] commeDepart = {{0, 0, 4, 6}, {cellule[0], cellule[1], 0, 0}};
+      int[][] commeArrivee = {{0, 0, 4, 6}, {0, 0, cellule[0], cellule[1]}};
+      assertThrows(IllegalArgumentException.class, () -> requetes.distances(commeDepart));
+      assertThrows(IllegalArgumentException.class, () -> requetes.distances(commeArrivee));
+      assertThrows(IllegalArgumentException.class, () -> requetes.chemins(commeDepart));
+      assertThrows(IllegalArgumentException.class, () -> requetes.chemins(commeArrivee));
+    }
+  }
+
+  /**
+   * Vérifie qu'un chemin a la longueur attendue et relie l'arrivée au départ par des cellules
+   * voisines reliées par un passage.
+   *
+   * @param labyrinthe Labyrinthe parcouru
+   * @param chemin Chemin à vérifier
+   * @param arrivee Indice de la cellule d'arrivée
+   * @param attendu Chemin trouvé par un parcours en largeur
+   */
+  private static void verifierChemin(LabyrintheCompact labyrinthe, int[] chemin, int arrivee,
+                                     ArrayList<Integer> attendu) {
+    if (attendu.isEmpty()) {
+      assertNull(chemin);
+      return;
+    }
+    assertEquals(attendu.size(), chemin.length);
+    assertEquals(arrivee, chemin[0]);
+    assertEquals((int) attendu.get(attendu.size() - 1), chemin[chemin.length - 1]);
+    for (int i = 1; i < chemin.length; i++) {
+      int a = chemin[i - 1];
+      int b = chemin[i];
+      boolean relies = false;
+      for (int bit = 1; bit <= LabyrintheCompact.OUEST; bit <<= 1) {
+        relies |= (labyrinthe.passages(a) & bit) != 0 && labyrinthe.voisin(a, bit) == b;
+      }
+      assertTrue(relies);
+    }
+  }
+}